@@ -0,0 +1,13 @@
+-- ========================================
+-- 勋章规则引擎更新脚本
+-- 服务端在碳足迹新增后按规则（累计减排量、连续打卡天数、记录数、行为次数）异步授予勋章，写入 tb_achievement(type=1)
+-- rule_code 记录授予勋章的规则，(user_id, rule_code) 唯一，重复授予被忽略；积分兑换记录的 rule_code 为 NULL
+-- ========================================
+
+-- 1. 添加规则编码字段与唯一索引
+ALTER TABLE `tb_achievement`
+ADD COLUMN `rule_code` VARCHAR(50) DEFAULT NULL COMMENT '勋章规则编码(仅勋章)' AFTER `type`,
+ADD UNIQUE KEY `uk_user_rule` (`user_id`, `rule_code`);
+
+-- 验证
+SHOW INDEX FROM `tb_achievement`;
@@ -0,0 +1,14 @@
+-- ========================================
+-- 文章摘要字段更新脚本
+-- 列表接口只读取摘要列，不再读取 LONGTEXT 的 content
+-- ========================================
+
+-- 1. 为文章表添加摘要字段（由服务端在创建/更新文章时维护）
+ALTER TABLE `tb_article`
+ADD COLUMN `excerpt` VARCHAR(200) NOT NULL DEFAULT '' COMMENT '纯文本摘要(列表展示)' AFTER `content`;
+
+-- 2. 历史文章摘要由服务启动后回填（ArticleExcerptBackfill）：与新建/修改文章同一规则
+--    （去除 HTML 标签、还原 &nbsp; 等 HTML 实体、合并空白后截取前 150 个字符），只处理摘要为空的文章
+
+-- 验证字段是否添加成功
+SELECT COUNT(*) AS total, SUM(`excerpt` <> '') AS with_excerpt FROM `tb_article`;
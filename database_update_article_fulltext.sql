@@ -0,0 +1,12 @@
+-- ========================================
+-- 文章全文检索索引更新脚本
+-- 关键词检索由 LIKE '%kw%' 全表扫描改为 InnoDB FULLTEXT(ngram 中文分词) 索引
+-- 索引随 INSERT/UPDATE/DELETE 自动增量维护，无需额外同步任务
+-- ========================================
+
+-- 1. 创建全文索引（ngram 分词长度由 MySQL 参数 ngram_token_size 决定，默认 2，需与服务端 NGRAM_TOKEN_SIZE 一致）
+ALTER TABLE `tb_article`
+ADD FULLTEXT INDEX `ft_title_content` (`title`, `content`) WITH PARSER ngram;
+
+-- 验证索引是否创建成功
+SHOW INDEX FROM `tb_article` WHERE Key_name = 'ft_title_content';
@@ -0,0 +1,45 @@
+-- ========================================
+-- 排放系数版本化更新脚本
+-- 行为类型、单位与排放系数由 tb_behavior_factor 维护，服务端定期检测最新版本并热加载；
+-- 碳足迹记录保存计算时所用的系数版本
+-- 调整系数时按新版本号整组插入（不要修改已有版本），约 1 分钟内生效（footprint.factor.reload-interval）
+-- 新版本须包含上一版本的全部行为类型（停用的行为设 visible = 0，不要省略），未包含全部类型前服务端视为未写完、不切换
+-- ========================================
+
+-- 1. 创建排放系数表
+CREATE TABLE IF NOT EXISTS `tb_behavior_factor` (
+  `version` INT NOT NULL COMMENT '系数版本',
+  `behavior_type` VARCHAR(50) NOT NULL COMMENT '行为类型',
+  `behavior_name` VARCHAR(50) NOT NULL COMMENT '行为中文名称',
+  `unit` VARCHAR(20) NOT NULL COMMENT '单位(km/度/吨/次)',
+  `description` VARCHAR(255) DEFAULT NULL COMMENT '行为描述',
+  `coefficient` DECIMAL(10, 4) NOT NULL COMMENT '碳排放计算系数(kg/unit)',
+  `sort_order` INT NOT NULL DEFAULT 0 COMMENT '展示顺序',
+  `visible` TINYINT(1) NOT NULL DEFAULT 1 COMMENT '是否在行为类型列表中展示',
+  `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`version`, `behavior_type`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='行为排放系数表';
+
+-- 2. 初始版本（与原硬编码系数一致）
+INSERT IGNORE INTO `tb_behavior_factor`
+  (`version`, `behavior_type`, `behavior_name`, `unit`, `description`, `coefficient`, `sort_order`, `visible`)
+VALUES
+  (1, 'BUS', '公交出行', 'km', '搭乘公交车出行', 0.089, 1, 1),
+  (1, 'SUBWAY', '地铁出行', 'km', '搭乘地铁出行', 0.055, 2, 1),
+  (1, 'BIKE', '骑行', 'km', '骑自行车出行', 0, 3, 1),
+  (1, 'WALK', '步行', 'km', '步行出行', 0, 4, 1),
+  (1, 'CAR', '私家车', 'km', '驾驶私家车出行', 0.271, 5, 0),
+  (1, 'ELECTRIC_CAR', '电动车出行', 'km', '驾驶电动车出行', 0.15, 6, 1),
+  (1, 'SAVE_ELEC', '节约用电', '度', '节约用电量', 0.785, 7, 1),
+  (1, 'SAVE_WATER', '节约用水', '吨', '节约用水量', 0.194, 8, 1),
+  (1, 'VEGETARIAN', '素食', '次', '选择素食餐', 0.5, 9, 1),
+  (1, 'REDUCE_WASTE', '减少浪费', '次', '减少食物浪费', 0.3, 10, 1),
+  (1, 'RECYCLE', '垃圾分类', '次', '垃圾分类回收', 0.2, 11, 1),
+  (1, 'REUSE_BAG', '环保袋', '次', '使用环保购物袋', 0.1, 12, 1);
+
+-- 3. 碳足迹记录保存系数版本（已有记录均按版本 1 计算）
+ALTER TABLE `tb_footprint`
+ADD COLUMN `factor_version` INT NOT NULL DEFAULT 1 COMMENT '计算所用的排放系数版本' AFTER `coefficient`;
+
+-- 验证
+SELECT `version`, COUNT(*) AS behaviors FROM `tb_behavior_factor` GROUP BY `version`;
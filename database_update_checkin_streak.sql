@@ -0,0 +1,29 @@
+-- ========================================
+-- 连续打卡状态更新脚本
+-- /footprint/checkin/stats 直接读取用户表中增量维护的连续打卡天数，不再逐日查询
+-- ========================================
+
+-- 1. 为用户表添加连续打卡字段
+ALTER TABLE `tb_user`
+ADD COLUMN `current_streak` INT NOT NULL DEFAULT 0 COMMENT '截至最近记录日期的连续打卡天数' AFTER `total_reduction`,
+ADD COLUMN `last_checkin_date` DATE DEFAULT NULL COMMENT '最近一次有记录的日期' AFTER `current_streak`;
+
+-- 2. 按现有记录回填（需 MySQL 8.0+ 窗口函数）
+--    连续日期按倒序编号后 record_date + 序号 恒等于 最近日期 + 1
+UPDATE `tb_user` u
+JOIN (
+  SELECT r.user_id, MAX(r.record_date) AS last_date, COUNT(*) AS streak
+  FROM (
+    SELECT d.user_id, d.record_date,
+           DATE_ADD(d.record_date, INTERVAL ROW_NUMBER() OVER (PARTITION BY d.user_id ORDER BY d.record_date DESC) DAY) AS grp,
+           DATE_ADD(MAX(d.record_date) OVER (PARTITION BY d.user_id), INTERVAL 1 DAY) AS head
+    FROM (SELECT DISTINCT `user_id`, `record_date` FROM `tb_footprint` WHERE `record_date` IS NOT NULL) d
+  ) r
+  WHERE r.grp = r.head
+  GROUP BY r.user_id
+) s ON s.user_id = u.id
+SET u.`current_streak` = s.streak,
+    u.`last_checkin_date` = s.last_date;
+
+-- 验证回填结果
+SELECT `id`, `username`, `current_streak`, `last_checkin_date` FROM `tb_user` ORDER BY `current_streak` DESC LIMIT 10;
@@ -0,0 +1,18 @@
+-- ========================================
+-- 游标分页索引更新脚本
+-- 为 /footprint/list/cursor、/article/list/cursor 的 keyset 查询提供有序索引
+-- ========================================
+
+-- 1. 碳足迹：按用户 + (record_date, create_time, id) 定位，深翻页仅扫描一页数据
+--    该索引已覆盖 user_id 前缀，原 idx_user_id 冗余，一并删除
+ALTER TABLE `tb_footprint`
+ADD INDEX `idx_user_date_time_id` (`user_id`, `record_date`, `create_time`, `id`),
+DROP INDEX `idx_user_id`;
+
+-- 2. 文章：按 (is_top, create_time, id) 定位，与列表排序一致
+ALTER TABLE `tb_article`
+ADD INDEX `idx_top_time_id` (`is_top`, `create_time`, `id`);
+
+-- 验证索引是否创建成功
+SHOW INDEX FROM `tb_footprint` WHERE Key_name = 'idx_user_date_time_id';
+SHOW INDEX FROM `tb_article` WHERE Key_name = 'idx_top_time_id';
@@ -0,0 +1,29 @@
+-- ========================================
+-- 碳足迹日汇总表更新脚本
+-- 趋势图、行为统计、打卡日历、本月打卡天数改为读取预聚合的日汇总，不再对明细做 GROUP BY
+-- ========================================
+
+-- 1. 创建日汇总表（由服务端在记录增删改时按差值维护，并每日由明细重建）
+CREATE TABLE IF NOT EXISTS `tb_footprint_daily` (
+  `user_id` BIGINT NOT NULL COMMENT '用户ID',
+  `record_date` DATE NOT NULL COMMENT '行为发生日期',
+  `behavior_type` VARCHAR(50) NOT NULL COMMENT '行为类型',
+  `behavior_name` VARCHAR(50) DEFAULT NULL COMMENT '行为中文名称(最近一次记录)',
+  `record_count` INT NOT NULL DEFAULT 0 COMMENT '记录数',
+  `reduction_amount` DECIMAL(12, 2) NOT NULL DEFAULT 0.00 COMMENT '碳减排量合计',
+  `points_earned` INT NOT NULL DEFAULT 0 COMMENT '积分合计',
+  PRIMARY KEY (`user_id`, `record_date`, `behavior_type`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='碳足迹日汇总表';
+
+-- 2. 由现有明细初始化
+INSERT INTO `tb_footprint_daily`
+  (`user_id`, `record_date`, `behavior_type`, `behavior_name`, `record_count`, `reduction_amount`, `points_earned`)
+SELECT `user_id`, `record_date`, `behavior_type`, MAX(`behavior_name`), COUNT(*), SUM(`reduction_amount`), SUM(`points_earned`)
+FROM `tb_footprint`
+WHERE `record_date` IS NOT NULL
+GROUP BY `user_id`, `record_date`, `behavior_type`;
+
+-- 验证汇总与明细一致
+SELECT
+  (SELECT COUNT(*) FROM `tb_footprint` WHERE `record_date` IS NOT NULL) AS detail_count,
+  (SELECT SUM(`record_count`) FROM `tb_footprint_daily`) AS rollup_count;
@@ -0,0 +1,24 @@
+-- ========================================
+-- 碳足迹事件发件箱更新脚本
+-- 记录新增/修改/删除时只写入明细与一条事件（同一事务），日汇总、用户累计、连续打卡、排行榜与勋章
+-- 由后台线程按批处理事件完成，处理成功的事件在同一事务中删除
+-- ========================================
+
+-- 1. 创建事件表
+CREATE TABLE IF NOT EXISTS `tb_footprint_event` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '事件ID',
+  `event_type` VARCHAR(30) NOT NULL COMMENT '事件类型：FootprintRecorded/FootprintAmended/FootprintDeleted',
+  `user_id` BIGINT NOT NULL COMMENT '用户ID',
+  `payload` MEDIUMTEXT NOT NULL COMMENT '事件内容(JSON)',
+  `status` TINYINT NOT NULL DEFAULT 0 COMMENT '状态：0-待处理, 2-处理失败',
+  `attempts` INT NOT NULL DEFAULT 0 COMMENT '失败次数',
+  `last_error` VARCHAR(500) DEFAULT NULL COMMENT '最近一次失败原因',
+  `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_status_id` (`status`, `id`),
+  KEY `idx_user_id` (`user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='碳足迹事件发件箱';
+
+-- 处理失败的事件（status=2）保留在表中，其用户的日汇总夜间重建会跳过；
+-- 排查并修复原因后由管理员调用 POST /footprint/events/requeue-failed 重新排队（清零失败次数并唤醒处理线程）
+SELECT `status`, COUNT(*) FROM `tb_footprint_event` GROUP BY `status`;
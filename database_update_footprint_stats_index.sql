@@ -0,0 +1,11 @@
+-- ========================================
+-- 碳足迹统计覆盖索引更新脚本
+-- /footprint/statistics 的 SUM/COUNT 聚合只需一次索引范围扫描，无需回表
+-- ========================================
+
+-- 1. (user_id, record_date) 前缀用于范围定位，附带 reduction_amount、points_earned 使聚合被索引覆盖
+ALTER TABLE `tb_footprint`
+ADD INDEX `idx_user_date_stats` (`user_id`, `record_date`, `reduction_amount`, `points_earned`);
+
+-- 验证索引是否创建成功
+SHOW INDEX FROM `tb_footprint` WHERE Key_name = 'idx_user_date_stats';
@@ -0,0 +1,59 @@
+-- ========================================
+-- 积分流水与积分兑换更新脚本
+-- 用户积分的每次变动追加一条流水（按用户递增的序号），余额按版本号比较并更新；
+-- 兑换记录写入 tb_achievement(type=2)，以 (user_id, idempotency_key) 保证重试不重复扣减
+-- ========================================
+
+-- 1. 用户积分版本号：每次积分变动 +1，等于该用户最新一条流水的序号
+ALTER TABLE `tb_user`
+  ADD COLUMN `points_version` BIGINT NOT NULL DEFAULT 0 COMMENT '积分版本号(最新流水序号)' AFTER `points`;
+
+-- 2. 积分流水表（只追加，不修改不删除）
+CREATE TABLE IF NOT EXISTS `tb_points_ledger` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '流水ID',
+  `user_id` BIGINT NOT NULL COMMENT '用户ID',
+  `seq` BIGINT NOT NULL COMMENT '用户内序号，从1开始连续递增',
+  `change_amount` INT NOT NULL COMMENT '积分变化(正数为获得，负数为消耗)',
+  `balance_after` INT NOT NULL COMMENT '变动后余额',
+  `biz_type` VARCHAR(20) NOT NULL COMMENT '业务类型：OPENING-期初, FOOTPRINT-碳足迹, REDEEM-兑换',
+  `biz_id` VARCHAR(64) DEFAULT NULL COMMENT '业务ID：碳足迹事件ID或兑换记录ID',
+  `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_user_seq` (`user_id`, `seq`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='积分流水表';
+
+-- 3. 兑换商品表
+CREATE TABLE IF NOT EXISTS `tb_reward_item` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '商品ID',
+  `name` VARCHAR(100) NOT NULL COMMENT '商品名称',
+  `description` VARCHAR(500) DEFAULT NULL COMMENT '商品描述',
+  `image_url` VARCHAR(500) DEFAULT NULL COMMENT '商品图片',
+  `points_cost` INT NOT NULL COMMENT '所需积分',
+  `stock` INT NOT NULL DEFAULT 0 COMMENT '剩余库存',
+  `status` TINYINT DEFAULT 1 COMMENT '状态：0-下架, 1-上架',
+  `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `update_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_status` (`status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='积分兑换商品表';
+
+-- 4. 兑换记录（type=2）关联商品与幂等键；勋章的 idempotency_key 为 NULL，不受唯一约束限制
+ALTER TABLE `tb_achievement`
+  ADD COLUMN `item_id` BIGINT DEFAULT NULL COMMENT '兑换商品ID（仅兑换）' AFTER `rule_code`,
+  ADD COLUMN `idempotency_key` VARCHAR(64) DEFAULT NULL COMMENT '兑换请求幂等键（仅兑换）' AFTER `item_id`,
+  ADD UNIQUE KEY `uk_user_idempotency` (`user_id`, `idempotency_key`);
+
+-- 5. 已有积分写入期初流水（序号 1），版本号与之对齐
+INSERT INTO `tb_points_ledger` (`user_id`, `seq`, `change_amount`, `balance_after`, `biz_type`)
+SELECT `id`, 1, `points`, `points`, 'OPENING' FROM `tb_user` WHERE `points` > 0 AND `points_version` = 0;
+UPDATE `tb_user` SET `points_version` = 1 WHERE `points` > 0 AND `points_version` = 0;
+
+-- 6. 示例商品
+INSERT INTO `tb_reward_item` (`name`, `description`, `points_cost`, `stock`) VALUES
+('环保帆布袋', '可重复使用的购物袋', 200, 500),
+('竹制餐具套装', '便携筷勺套装，减少一次性餐具', 300, 300),
+('公交卡充值 10 元', '绿色出行奖励', 1000, 100);
+
+-- 验证：流水最新序号应与版本号一致
+SELECT COUNT(*) AS mismatched FROM `tb_user` u
+WHERE u.`points_version` <> IFNULL((SELECT MAX(l.`seq`) FROM `tb_points_ledger` l WHERE l.`user_id` = u.`id`), 0);
@@ -9,6 +9,15 @@ export function getArticleList(params) {
   })
 }
 
+// 获取文章列表（游标分页，cursor 为上一页返回的 nextCursor；按发布时间排序，关键词检索按相关度排序请用 getArticleList）
+export function getArticleListByCursor(params) {
+  return request({
+    url: '/article/list/cursor',
+    method: 'get',
+    params
+  })
+}
+
 // 获取文章详情
 export function getArticleDetail(id) {
   return request({
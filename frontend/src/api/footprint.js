@@ -73,3 +73,23 @@ export const deleteFootprint = (id) => {
 export const updateFootprint = (id, data) => {
   return request.put(`/footprint/${id}`, data)
 }
+
+/**
+ * 游标分页获取碳足迹记录列表
+ * @param {Object} params - 查询参数
+ * @param {number} params.pageSize - 每页数量
+ * @param {string} params.cursor - 上一页返回的 nextCursor，首页不传
+ * @param {string} params.startDate - 开始日期(YYYY-MM-DD)
+ * @param {string} params.endDate - 结束日期(YYYY-MM-DD)
+ */
+export const getFootprintListByCursor = (params) => {
+  return request.get('/footprint/list/cursor', { params })
+}
+
+/**
+ * 批量导入碳足迹记录
+ * @param {Array<Object>} rows - 记录数组，字段同 createFootprint
+ */
+export const importFootprints = (rows) => {
+  return request.post('/footprint/import', rows)
+}
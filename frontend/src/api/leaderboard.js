@@ -0,0 +1,39 @@
+import request from '@/utils/request'
+
+/**
+ * 获取排行榜前 N 名
+ * @param {Object} params - 查询参数
+ * @param {string} params.metric - reduction(累计减排量，默认) 或 points(积分)
+ * @param {number} params.size - 名次数量，最多 100
+ */
+export const getLeaderboardTop = (params) => {
+  return request.get('/leaderboard/top', { params })
+}
+
+/**
+ * 获取我的名次（需登录）
+ * @param {string} metric - reduction 或 points
+ */
+export const getMyRank = (metric) => {
+  return request.get('/leaderboard/me', { params: { metric } })
+}
+
+/**
+ * 获取本周/本月排行
+ * @param {Object} params - 查询参数
+ * @param {string} params.period - week(本周，默认) 或 month(本月)
+ * @param {string} params.metric - reduction(窗口内减排量，默认) 或 days(有记录的天数)
+ * @param {number} params.size - 名次数量，最多 100
+ */
+export const getWindowLeaderboard = (params) => {
+  return request.get('/leaderboard/window', { params })
+}
+
+/**
+ * 获取我的本周/本月名次（需登录）
+ * @param {string} period - week 或 month
+ * @param {string} metric - reduction 或 days
+ */
+export const getMyWindowRank = (period, metric) => {
+  return request.get('/leaderboard/window/me', { params: { period, metric } })
+}
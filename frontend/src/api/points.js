@@ -0,0 +1,27 @@
+import request from '@/utils/request'
+
+/**
+ * 获取上架的兑换商品
+ */
+export const getRewardItems = () => {
+  return request.get('/points/items')
+}
+
+/**
+ * 兑换商品（需登录）
+ * @param {number} itemId - 商品ID
+ * @param {string} idempotencyKey - 幂等键，同一次兑换重试时传入同一个值
+ */
+export const redeem = (itemId, idempotencyKey) => {
+  return request.post('/points/redeem', { itemId }, { headers: { 'Idempotency-Key': idempotencyKey } })
+}
+
+/**
+ * 获取我的积分流水（需登录）
+ * @param {Object} params - 查询参数
+ * @param {number} params.pageSize - 每页条数
+ * @param {string} params.cursor - 上一页返回的 nextCursor
+ */
+export const getPointsLedger = (params) => {
+  return request.get('/points/ledger', { params })
+}
@@ -0,0 +1,51 @@
+package com.lowcarbon.benchmark;
+
+import com.lowcarbon.interceptor.AuthInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 鉴权拦截器白名单匹配（命中白名单与未带 token 两种不访问数据库的路径）
+ * 请求路径在首次调用时解析并缓存在请求属性中，与线上 DispatcherServlet 预先解析的情况一致
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AuthInterceptorBenchmark {
+
+    @Param({"/api/article/list", "/api/article/42", "/api/footprint/behavior-types", "/api/footprint/list"})
+    private String uri;
+
+    private AuthInterceptor interceptor;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup() {
+        interceptor = new AuthInterceptor();
+        request = new MockHttpServletRequest("GET", uri);
+        request.setContextPath("/api");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public boolean preHandle() {
+        return interceptor.preHandle(request, response, null);
+    }
+}
@@ -0,0 +1,70 @@
+package com.lowcarbon.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lowcarbon.entity.BehaviorFactor;
+import com.lowcarbon.mapper.BehaviorFactorMapper;
+import com.lowcarbon.service.impl.BehaviorFactorRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 行为类型接口：读取预序列化快照 vs 每次查找行为系数（注册表使用内置系数，不连接数据库）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BehaviorTypesBenchmark {
+
+    private BehaviorFactorRegistry registry;
+
+    @Setup
+    public void setup() {
+        registry = new BehaviorFactorRegistry();
+        BenchmarkSupport.inject(registry, "objectMapper", new ObjectMapper());
+        // 系数表为空的 mapper：注册表加载内置系数，不连接数据库
+        BenchmarkSupport.inject(registry, "behaviorFactorMapper", new BehaviorFactorMapper() {
+            @Override
+            public Integer getLatestVersion() {
+                return null;
+            }
+
+            @Override
+            public int countByVersion(Integer version) {
+                return 0;
+            }
+
+            @Override
+            public List<BehaviorFactor> selectByVersion(Integer version) {
+                return List.of();
+            }
+        });
+        registry.init();
+    }
+
+    @Benchmark
+    public void servePreserialized(Blackhole bh) {
+        BehaviorFactorRegistry.Snapshot snapshot = registry.current();
+        bh.consume(snapshot.matches("\"stale\""));
+        bh.consume(snapshot.getBehaviorTypesJson());
+    }
+
+    @Benchmark
+    public void lookupFactor(Blackhole bh) {
+        bh.consume(registry.current().get("SUBWAY"));
+    }
+}
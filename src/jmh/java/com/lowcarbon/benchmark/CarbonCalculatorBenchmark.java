@@ -0,0 +1,60 @@
+package com.lowcarbon.benchmark;
+
+import com.lowcarbon.service.impl.CarbonCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 创建记录时的减排量/积分计算：定点 long 计算 vs 原 BigDecimal 计算（配合 -prof gc 对比分配量）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CarbonCalculatorBenchmark {
+
+    private BigDecimal dataValue;
+    private CarbonCalculator.Coefficient coefficient;
+
+    @Setup
+    public void setup() {
+        dataValue = new BigDecimal("12.35");
+        coefficient = CarbonCalculator.Coefficient.of(new BigDecimal("0.0890"));
+    }
+
+    @Benchmark
+    public void fixedPoint(Blackhole bh) {
+        long cents = CarbonCalculator.reductionCents(dataValue, coefficient);
+        bh.consume(cents);
+        bh.consume(CarbonCalculator.points(cents));
+    }
+
+    @Benchmark
+    public void fixedPointWithResult(Blackhole bh) {
+        long cents = CarbonCalculator.reductionCents(dataValue, coefficient);
+        bh.consume(CarbonCalculator.toReduction(cents));
+        bh.consume(CarbonCalculator.points(cents));
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole bh) {
+        BigDecimal reduction = dataValue.multiply(coefficient.getValue()).setScale(2, RoundingMode.HALF_UP);
+        bh.consume(reduction);
+        bh.consume(reduction.multiply(new BigDecimal(CarbonCalculator.POINTS_PER_KG)).intValue());
+    }
+}
@@ -0,0 +1,56 @@
+package com.lowcarbon.benchmark;
+
+import com.lowcarbon.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 签发与解析（每个需要登录的请求至少解析一次；parseToken 为命中 claims 缓存的情况）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil();
+        BenchmarkSupport.inject(jwtUtil, "secret", "lowcarbon-benchmark-secret-key-at-least-32-bytes");
+        BenchmarkSupport.inject(jwtUtil, "expiration", 86400000L);
+        BenchmarkSupport.inject(jwtUtil, "claimsCacheCapacity", 10000);
+        BenchmarkSupport.inject(jwtUtil, "claimsCacheMaxTtl", 300000L);
+        jwtUtil.init();
+        token = jwtUtil.generateToken(1L, "benchmark", "USER");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(1L, "benchmark", "USER");
+    }
+
+    @Benchmark
+    public Object parseToken() {
+        return jwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public Long getUserIdFromToken() {
+        return jwtUtil.getUserIdFromToken(token);
+    }
+}
@@ -0,0 +1,57 @@
+package com.lowcarbon.benchmark;
+
+import com.lowcarbon.dto.FootprintVO;
+import com.lowcarbon.entity.Footprint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实体转 VO：BeanUtils.copyProperties（列表、游标分页与导出的每一行都会执行）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VoConversionBenchmark {
+
+    private Footprint footprint;
+
+    @Setup
+    public void setup() {
+        footprint = new Footprint();
+        footprint.setId(1L);
+        footprint.setUserId(1L);
+        footprint.setBehaviorType("SUBWAY");
+        footprint.setBehaviorName("地铁出行");
+        footprint.setCoefficient(new BigDecimal("0.0550"));
+        footprint.setFactorVersion(1);
+        footprint.setDataValue(new BigDecimal("12.50"));
+        footprint.setReductionAmount(new BigDecimal("0.69"));
+        footprint.setPointsEarned(6);
+        footprint.setRecordDate(LocalDate.of(2024, 1, 1));
+        footprint.setCreateTime(LocalDateTime.of(2024, 1, 1, 8, 0));
+    }
+
+    @Benchmark
+    public FootprintVO copyProperties() {
+        FootprintVO vo = new FootprintVO();
+        BeanUtils.copyProperties(footprint, vo);
+        return vo;
+    }
+}
@@ -9,6 +9,9 @@ public class Constants {
     public static final Integer STATUS_NORMAL = 1;
     public static final Integer STATUS_DISABLED = 0;
 
+    // 分页：单页最大条数
+    public static final int MAX_PAGE_SIZE = 100;
+
     // JWT Token前缀
     public static final String TOKEN_PREFIX = "Bearer ";
 
@@ -1,6 +1,7 @@
 package com.lowcarbon.config;
 
 import com.lowcarbon.interceptor.AuthInterceptor;
+import com.lowcarbon.interceptor.AuthWhitelist;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -16,15 +17,7 @@ public class InterceptorConfig implements WebMvcConfigurer {
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(authInterceptor)
                 .addPathPatterns("/**")
-                .excludePathPatterns(
-                        "/user/register",
-                        "/user/login",
-                        "/article/list",
-                        "/footprint/behavior-types",
-                        "/doc.html",
-                        "/webjars/**",
-                        "/swagger-resources/**",
-                        "/v3/api-docs/**"
-                );
+                // 免登录接口由 AuthWhitelist 统一维护；仅 GET 放行的路径由拦截器按方法判断
+                .excludePathPatterns(AuthWhitelist.PUBLIC_PATHS);
     }
 }
@@ -0,0 +1,26 @@
+package com.lowcarbon.config;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.lowcarbon.common.Constants;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MybatisPlusConfig {
+
+    /**
+     * 分页插件：将 selectPage 改写为 LIMIT/OFFSET 下推到 MySQL，并自动生成优化后的 COUNT 语句
+     */
+    @Bean
+    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+        MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+        PaginationInnerInterceptor pagination = new PaginationInnerInterceptor(DbType.MYSQL);
+        // 单页最大条数，防止 size 参数过大拖垮数据库
+        pagination.setMaxLimit((long) Constants.MAX_PAGE_SIZE);
+        pagination.setOptimizeJoin(true);
+        interceptor.addInnerInterceptor(pagination);
+        return interceptor;
+    }
+}
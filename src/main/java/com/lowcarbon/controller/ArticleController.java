@@ -7,6 +7,7 @@ import com.lowcarbon.dto.ArticleQueryDTO;
 import com.lowcarbon.dto.ArticleUpdateDTO;
 import com.lowcarbon.dto.ArticleVO;
 import com.lowcarbon.dto.CommentVO;
+import com.lowcarbon.dto.CursorPageVO;
 import com.lowcarbon.service.ArticleService;
 import com.lowcarbon.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -42,6 +43,18 @@ public class ArticleController {
         }
     }
 
+    @Operation(summary = "文章列表（游标分页）", description = "游客可访问，按置顶与发布时间倒序，传入上一页的 nextCursor 获取下一页；关键词只作筛选，不按相关度排序")
+    @GetMapping("/list/cursor")
+    public Result<CursorPageVO<ArticleVO>> getArticleCursorPage(ArticleQueryDTO queryDTO,
+                                                                @RequestParam(required = false) String cursor) {
+        try {
+            CursorPageVO<ArticleVO> page = articleService.getArticleCursorPage(queryDTO, cursor);
+            return Result.success(page);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     @Operation(summary = "文章详情", description = "查看文章详情，自动记录浏览量")
     @GetMapping("/{id}")
     public Result<ArticleVO> getArticleDetail(@PathVariable Long id) {
@@ -1,10 +1,19 @@
 package com.lowcarbon.controller;
 
+import cn.hutool.core.text.csv.CsvReadConfig;
+import cn.hutool.core.text.csv.CsvReader;
+import cn.hutool.core.text.csv.CsvRow;
+import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.lowcarbon.common.Constants;
 import com.lowcarbon.common.Result;
+import com.lowcarbon.dto.CursorPageVO;
 import com.lowcarbon.dto.FootprintCreateDTO;
+import com.lowcarbon.dto.FootprintImportVO;
 import com.lowcarbon.dto.FootprintVO;
 import com.lowcarbon.service.FootprintService;
+import com.lowcarbon.service.impl.BehaviorFactorRegistry;
+import com.lowcarbon.service.impl.FootprintEventOutbox;
 import com.lowcarbon.service.impl.FootprintServiceImpl;
 import com.lowcarbon.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,9 +22,20 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -30,13 +50,32 @@ public class FootprintController {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private BehaviorFactorRegistry behaviorFactorRegistry;
+    
+    @Autowired
+    private FootprintEventOutbox footprintEventOutbox;
+    
     /**
      * 获取所有行为类型配置
      */
     @GetMapping("/behavior-types")
     @Operation(summary = "获取所有行为类型配置")
-    public Result<Map<String, Map<String, Object>>> getBehaviorTypes() {
-        return Result.success(FootprintServiceImpl.getBehaviorTypes());
+    public ResponseEntity<byte[]> getBehaviorTypes(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // 响应体在系数加载时已序列化，系数版本未变化时返回 304
+        BehaviorFactorRegistry.Snapshot factors = behaviorFactorRegistry.current();
+        if (factors.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(factors.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(factors.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(factors.getBehaviorTypesJson());
     }
     
     /**
@@ -52,6 +91,50 @@ public class FootprintController {
         return Result.success(footprintVO);
     }
     
+    /**
+     * 批量导入碳足迹记录（JSON 数组）
+     */
+    @PostMapping("/import")
+    @Operation(summary = "批量导入碳足迹记录（JSON 数组）")
+    public Result<FootprintImportVO> importFootprints(@RequestBody List<FootprintCreateDTO> rows,
+                                                     HttpServletRequest request) {
+        String token = getTokenFromRequest(request);
+        Long userId = jwtUtil.getUserIdFromToken(token);
+        FootprintImportVO result = footprintService.importFootprints(rows.iterator(), userId);
+        return Result.success(result);
+    }
+    
+    /**
+     * 批量导入碳足迹记录（CSV 流式读取，首行为表头：behaviorType,behaviorName,dataValue,recordDate,remark）
+     */
+    @PostMapping(value = "/import/csv", consumes = {"text/csv", "text/plain"})
+    @Operation(summary = "批量导入碳足迹记录（CSV）")
+    public Result<FootprintImportVO> importFootprintsCsv(HttpServletRequest request) throws IOException {
+        String token = getTokenFromRequest(request);
+        Long userId = jwtUtil.getUserIdFromToken(token);
+        CsvReadConfig config = CsvReadConfig.defaultConfig();
+        config.setContainsHeader(true);
+        config.setSkipEmptyRows(true);
+        config.setTrimField(true);
+        try (CsvReader reader = new CsvReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8), config)) {
+            Iterator<FootprintCreateDTO> rows = reader.stream().map(FootprintController::toCreateDTO).iterator();
+            FootprintImportVO result = footprintService.importFootprints(rows, userId);
+            return Result.success(result);
+        }
+    }
+    
+    private static FootprintCreateDTO toCreateDTO(CsvRow row) {
+        FootprintCreateDTO dto = new FootprintCreateDTO();
+        dto.setBehaviorType(row.getByName("behaviorType"));
+        dto.setBehaviorName(row.getByName("behaviorName"));
+        String dataValue = row.getByName("dataValue");
+        dto.setDataValue(StrUtil.isBlank(dataValue) ? null : new BigDecimal(dataValue));
+        String recordDate = row.getByName("recordDate");
+        dto.setRecordDate(StrUtil.isBlank(recordDate) ? null : LocalDate.parse(recordDate));
+        dto.setRemark(row.getByName("remark"));
+        return dto;
+    }
+    
     /**
      * 获取碳足迹记录列表
      */
@@ -62,13 +145,60 @@ public class FootprintController {
             @RequestParam(defaultValue = "10") Integer pageSize,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "true") Boolean searchCount,
+            HttpServletRequest request) {
+        String token = getTokenFromRequest(request);
+        Long userId = jwtUtil.getUserIdFromToken(token);
+        IPage<FootprintVO> page = footprintService.getFootprintList(userId, pageNum, pageSize, startDate, endDate, searchCount);
+        return Result.success(page);
+    }
+    
+    /**
+     * 游标分页获取碳足迹记录（深翻页性能与第一页一致）
+     */
+    @GetMapping("/list/cursor")
+    @Operation(summary = "游标分页获取碳足迹记录列表")
+    public Result<CursorPageVO<FootprintVO>> getFootprintCursorPage(
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             HttpServletRequest request) {
         String token = getTokenFromRequest(request);
         Long userId = jwtUtil.getUserIdFromToken(token);
-        IPage<FootprintVO> page = footprintService.getFootprintList(userId, pageNum, pageSize, startDate, endDate);
+        CursorPageVO<FootprintVO> page = footprintService.getFootprintCursorPage(userId, pageSize, startDate, endDate, cursor);
         return Result.success(page);
     }
     
+    /**
+     * 流式导出碳足迹记录（CSV 或 NDJSON）
+     */
+    @GetMapping("/export")
+    @Operation(summary = "导出碳足迹记录（format=csv|ndjson）")
+    public ResponseEntity<StreamingResponseBody> exportFootprints(
+            @RequestParam(defaultValue = FootprintServiceImpl.EXPORT_FORMAT_CSV) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletRequest request) {
+        String token = getTokenFromRequest(request);
+        Long userId = jwtUtil.getUserIdFromToken(token);
+        
+        boolean ndjson = FootprintServiceImpl.EXPORT_FORMAT_NDJSON.equalsIgnoreCase(format);
+        if (!ndjson && !FootprintServiceImpl.EXPORT_FORMAT_CSV.equalsIgnoreCase(format)) {
+            throw new RuntimeException("导出格式仅支持 csv 或 ndjson");
+        }
+        MediaType contentType = ndjson
+                ? new MediaType("application", "x-ndjson", StandardCharsets.UTF_8)
+                : new MediaType("text", "csv", StandardCharsets.UTF_8);
+        String fileName = "footprints." + (ndjson ? FootprintServiceImpl.EXPORT_FORMAT_NDJSON : FootprintServiceImpl.EXPORT_FORMAT_CSV);
+        
+        StreamingResponseBody body = out -> footprintService.exportFootprints(userId, startDate, endDate, format, out);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
+                .body(body);
+    }
+    
     /**
      * 获取碳足迹统计数据
      */
@@ -194,6 +324,18 @@ public class FootprintController {
         return Result.success();
     }
     
+    /**
+     * 处理失败的记录事件重新排队（管理员）
+     */
+    @PostMapping("/events/requeue-failed")
+    @Operation(summary = "处理失败的记录事件重新排队（管理员，排查并修复失败原因后调用）")
+    public Result<Integer> requeueFailedEvents(HttpServletRequest request) {
+        if (!Constants.ROLE_ADMIN.equals(request.getAttribute("userRole"))) {
+            return Result.error(403, "无权操作");
+        }
+        return Result.success(footprintEventOutbox.requeueFailed());
+    }
+    
     /**
      * 从请求中获取token
      */
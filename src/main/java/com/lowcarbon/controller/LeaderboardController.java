@@ -0,0 +1,84 @@
+package com.lowcarbon.controller;
+
+import com.lowcarbon.common.Result;
+import com.lowcarbon.dto.LeaderboardEntryVO;
+import com.lowcarbon.dto.WindowLeaderboardVO;
+import com.lowcarbon.service.LeaderboardService;
+import com.lowcarbon.util.JwtUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Tag(name = "排行榜", description = "累计减排量与积分排行、本周/本月排行")
+@RestController
+@RequestMapping("/leaderboard")
+public class LeaderboardController {
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Operation(summary = "排行榜前 N 名", description = "游客可访问，metric 为 reduction（累计减排量，默认）或 points（积分）")
+    @GetMapping("/top")
+    public Result<List<LeaderboardEntryVO>> getTop(@RequestParam(defaultValue = "reduction") String metric,
+                                                   @RequestParam(defaultValue = "10") Integer size) {
+        try {
+            return Result.success(leaderboardService.getTop(metric, size));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "我的名次", description = "需要登录，未上榜时名次排在所有上榜用户之后")
+    @GetMapping("/me")
+    public Result<LeaderboardEntryVO> getMyRank(@RequestParam(defaultValue = "reduction") String metric,
+                                                HttpServletRequest request) {
+        try {
+            String token = getTokenFromRequest(request);
+            Long userId = jwtUtil.getUserIdFromToken(token);
+            return Result.success(leaderboardService.getMyRank(metric, userId));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "本周/本月排行", description = "游客可访问，period 为 week（本周，默认）或 month（本月），metric 为 reduction（窗口内减排量，默认）或 days（有记录的天数）")
+    @GetMapping("/window")
+    public Result<WindowLeaderboardVO> getWindowTop(@RequestParam(defaultValue = "week") String period,
+                                                    @RequestParam(defaultValue = "reduction") String metric,
+                                                    @RequestParam(defaultValue = "10") Integer size) {
+        try {
+            return Result.success(leaderboardService.getWindowTop(period, metric, size));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "我的本周/本月名次", description = "需要登录")
+    @GetMapping("/window/me")
+    public Result<LeaderboardEntryVO> getWindowRank(@RequestParam(defaultValue = "week") String period,
+                                                    @RequestParam(defaultValue = "reduction") String metric,
+                                                    HttpServletRequest request) {
+        try {
+            String token = getTokenFromRequest(request);
+            Long userId = jwtUtil.getUserIdFromToken(token);
+            return Result.success(leaderboardService.getWindowRank(period, metric, userId));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    private String getTokenFromRequest(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        throw new RuntimeException("未登录或Token无效");
+    }
+}
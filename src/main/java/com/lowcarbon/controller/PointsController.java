@@ -0,0 +1,76 @@
+package com.lowcarbon.controller;
+
+import com.lowcarbon.common.Result;
+import com.lowcarbon.dto.CursorPageVO;
+import com.lowcarbon.dto.RedeemDTO;
+import com.lowcarbon.dto.RedemptionVO;
+import com.lowcarbon.entity.PointsLedger;
+import com.lowcarbon.entity.RewardItem;
+import com.lowcarbon.service.PointsService;
+import com.lowcarbon.util.JwtUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Tag(name = "积分", description = "积分流水、兑换商品与积分兑换")
+@RestController
+@RequestMapping("/points")
+public class PointsController {
+
+    @Autowired
+    private PointsService pointsService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Operation(summary = "兑换商品列表", description = "游客可访问，返回上架商品及剩余库存")
+    @GetMapping("/items")
+    public Result<List<RewardItem>> listItems() {
+        try {
+            return Result.success(pointsService.listItems());
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "积分兑换", description = "需要登录；请求头 Idempotency-Key 标识一次兑换，超时重试时携带同一个键不会重复扣减")
+    @PostMapping("/redeem")
+    public Result<RedemptionVO> redeem(@Valid @RequestBody RedeemDTO redeemDTO,
+                                       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                       HttpServletRequest request) {
+        try {
+            String token = getTokenFromRequest(request);
+            Long userId = jwtUtil.getUserIdFromToken(token);
+            return Result.success("兑换成功", pointsService.redeem(userId, redeemDTO.getItemId(), idempotencyKey));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "我的积分流水", description = "需要登录，按序号倒序游标分页")
+    @GetMapping("/ledger")
+    public Result<CursorPageVO<PointsLedger>> getLedger(@RequestParam(defaultValue = "20") Integer pageSize,
+                                                        @RequestParam(required = false) String cursor,
+                                                        HttpServletRequest request) {
+        try {
+            String token = getTokenFromRequest(request);
+            Long userId = jwtUtil.getUserIdFromToken(token);
+            return Result.success(pointsService.getLedger(userId, pageSize, cursor));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    private String getTokenFromRequest(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        throw new RuntimeException("未登录或Token无效");
+    }
+}
@@ -9,5 +9,6 @@ public class ArticleQueryDTO {
     private Long authorId; // 作者ID筛选
     private Integer current = 1; // 当前页
     private Integer size = 10; // 每页数量
+    private Boolean searchCount = true; // 是否查询总数（无限滚动等场景可传 false 跳过 COUNT）
 }
 
@@ -8,13 +8,19 @@ public class ArticleVO {
     private Long id;
     private String title;
     private String coverImg;
-    private String content;
+    private String content; // 列表接口不返回，仅详情返回
+    private String excerpt;
     private String category;
     private Integer views;
+    private Integer likesCount;
+    private Integer commentsCount;
+    private Integer favoritesCount;
     private Long authorId;
     private String authorName;
     private Integer isTop;
     private LocalDateTime createTime;
     private LocalDateTime updateTime;
+    private String highlightTitle; // 关键词检索时返回，命中词以 <em> 包裹
+    private String highlightExcerpt;
 }
 
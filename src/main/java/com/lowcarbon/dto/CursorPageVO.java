@@ -0,0 +1,12 @@
+package com.lowcarbon.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CursorPageVO<T> {
+    private List<T> records;
+    private String nextCursor; // 下一页游标，为 null 表示没有更多数据
+    private Boolean hasMore;
+}
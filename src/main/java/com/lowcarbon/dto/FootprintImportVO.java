@@ -0,0 +1,12 @@
+package com.lowcarbon.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class FootprintImportVO {
+    private Integer imported; // 导入条数
+    private BigDecimal totalReduction; // 本次导入的碳减排量合计
+    private Integer totalPoints; // 本次导入获得的积分合计
+}
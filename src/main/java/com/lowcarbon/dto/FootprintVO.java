@@ -13,6 +13,7 @@ public class FootprintVO {
     private String behaviorType;
     private String behaviorName;
     private BigDecimal coefficient;
+    private Integer factorVersion; // 计算所用的排放系数版本
     private BigDecimal dataValue;
     private BigDecimal reductionAmount;
     private Integer pointsEarned;
@@ -0,0 +1,16 @@
+package com.lowcarbon.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class LeaderboardEntryVO {
+    private Integer rank; // 名次，分数相同名次相同
+    private Long userId;
+    private String nickname;
+    private String avatar;
+    private Integer points;
+    private BigDecimal totalReduction; // 时间窗口排行中为窗口内的减排量
+    private Integer checkinDays; // 时间窗口内有记录的天数（仅时间窗口排行）
+}
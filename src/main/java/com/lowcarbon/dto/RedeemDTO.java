@@ -0,0 +1,11 @@
+package com.lowcarbon.dto;
+
+import lombok.Data;
+
+import jakarta.validation.constraints.NotNull;
+
+@Data
+public class RedeemDTO {
+    @NotNull(message = "兑换商品不能为空")
+    private Long itemId;
+}
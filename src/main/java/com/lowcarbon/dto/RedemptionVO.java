@@ -0,0 +1,16 @@
+package com.lowcarbon.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class RedemptionVO {
+    private Long id; // 兑换记录ID
+    private Long itemId;
+    private String itemName;
+    private Integer pointsCost;
+    private Integer balance; // 兑换后的积分余额；重复请求时为当前余额
+    private Boolean duplicate; // 相同幂等键的重复请求，未再次扣减
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,14 @@
+package com.lowcarbon.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class WindowLeaderboardVO {
+    private String period; // week 或 month
+    private LocalDate startDate; // 窗口首日（含）
+    private LocalDate endDate; // 窗口末日（含）
+    private List<LeaderboardEntryVO> records;
+}
@@ -14,6 +14,9 @@ public class Achievement {
     private Long id;
     private Long userId;
     private Integer type; // 1-获得勋章, 2-积分兑换
+    private String ruleCode; // 勋章规则编码（仅勋章），同一用户同一规则只授予一次
+    private Long itemId; // 兑换商品ID（仅兑换）
+    private String idempotencyKey; // 兑换请求幂等键（仅兑换），同一用户同一键只兑换一次
     private String title;
     private String description;
     private Integer pointsChange;
@@ -15,6 +15,7 @@ public class Article {
     private String title;
     private String coverImg;
     private String content;
+    private String excerpt; // 纯文本摘要，创建/更新时由内容生成，供列表展示
     private String category;
     private Integer views;
     private Integer likesCount;
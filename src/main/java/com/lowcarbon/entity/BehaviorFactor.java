@@ -0,0 +1,21 @@
+package com.lowcarbon.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@TableName("tb_behavior_factor")
+public class BehaviorFactor {
+    private Integer version;
+    private String behaviorType;
+    private String behaviorName;
+    private String unit;
+    private String description;
+    private BigDecimal coefficient; // kg CO2/单位
+    private Integer sortOrder;
+    private Boolean visible; // 是否在行为类型列表中展示
+    private LocalDateTime createTime;
+}
@@ -18,6 +18,7 @@ public class Footprint {
     private String behaviorType;
     private String behaviorName;
     private BigDecimal coefficient;
+    private Integer factorVersion; // 计算所用的排放系数版本
     private BigDecimal dataValue;
     private BigDecimal reductionAmount;
     private Integer pointsEarned;
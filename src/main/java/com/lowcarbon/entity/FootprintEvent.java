@@ -0,0 +1,22 @@
+package com.lowcarbon.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@TableName("tb_footprint_event")
+public class FootprintEvent {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private String eventType; // FootprintRecorded / FootprintAmended / FootprintDeleted
+    private Long userId;
+    private String payload; // 事件内容（JSON）
+    private Integer status; // 0-待处理, 2-处理失败（处理成功的事件直接删除）
+    private Integer attempts; // 失败次数
+    private String lastError;
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,22 @@
+package com.lowcarbon.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@TableName("tb_points_ledger")
+public class PointsLedger {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private Long userId;
+    private Long seq; // 用户内序号，从 1 开始连续递增，与 User.pointsVersion 一致
+    private Integer changeAmount; // 正数为获得，负数为消耗
+    private Integer balanceAfter;
+    private String bizType; // OPENING / FOOTPRINT / REDEEM
+    private String bizId; // 碳足迹事件ID或兑换记录ID
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,23 @@
+package com.lowcarbon.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@TableName("tb_reward_item")
+public class RewardItem {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private String name;
+    private String description;
+    private String imageUrl;
+    private Integer pointsCost;
+    private Integer stock;
+    private Integer status; // 0-下架, 1-上架
+    private LocalDateTime createTime;
+    private LocalDateTime updateTime;
+}
@@ -6,6 +6,7 @@ import com.baomidou.mybatisplus.annotation.TableName;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
@@ -19,7 +20,10 @@ public class User {
     private String avatar;
     private String bio;
     private Integer points;
+    private Long pointsVersion; // 积分版本号，每次积分变动 +1，等于最新一条积分流水的序号
     private BigDecimal totalReduction;
+    private Integer currentStreak; // 截至 lastCheckinDate 的连续打卡天数
+    private LocalDate lastCheckinDate; // 最近一次有记录的日期
     private String role;
     private Integer status;
     private LocalDateTime createTime;
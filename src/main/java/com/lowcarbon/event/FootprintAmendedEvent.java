@@ -0,0 +1,18 @@
+package com.lowcarbon.event;
+
+import com.lowcarbon.entity.Footprint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 修改碳足迹记录（before 为修改前的副本）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FootprintAmendedEvent {
+    private Long userId;
+    private Footprint before;
+    private Footprint after;
+}
@@ -0,0 +1,17 @@
+package com.lowcarbon.event;
+
+import com.lowcarbon.entity.Footprint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 删除碳足迹记录
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FootprintDeletedEvent {
+    private Long userId;
+    private Footprint footprint;
+}
@@ -0,0 +1,19 @@
+package com.lowcarbon.event;
+
+import com.lowcarbon.entity.Footprint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 新增碳足迹记录（单条创建、打卡或批量导入的一批）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FootprintRecordedEvent {
+    private Long userId;
+    private List<Footprint> footprints;
+}
@@ -2,14 +2,18 @@ package com.lowcarbon.interceptor;
 
 import com.lowcarbon.common.Constants;
 import com.lowcarbon.entity.User;
-import com.lowcarbon.mapper.UserMapper;
+import com.lowcarbon.service.impl.UserStatusCache;
 import com.lowcarbon.util.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.server.PathContainer;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.ServletRequestPathUtils;
 
+@Slf4j
 @Component
 public class AuthInterceptor implements HandlerInterceptor {
 
@@ -17,28 +21,23 @@ public class AuthInterceptor implements HandlerInterceptor {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private UserMapper userMapper;
+    private UserStatusCache userStatusCache;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        // 排除登录和注册接口
-        String uri = request.getRequestURI();
+        // 免登录接口；应用内路径由 DispatcherServlet 在匹配处理器时解析并缓存，这里直接复用
         String method = request.getMethod();
-        
-        // 调试日志：输出实际接收到的URI
-        System.out.println("AuthInterceptor - 接收到的URI: " + uri + ", 方法: " + method);
-        
-        // 允许游客访问的接口：注册、登录、文章列表、文章详情（GET请求）、行为类型接口
-        if (uri.contains("/user/register") || uri.contains("/user/login") 
-            || uri.equals("/api/article/list") 
-            || uri.contains("/footprint/behavior-types")
-            || (uri.matches("/api/article/\\d+$") && "GET".equals(method))) {
-            System.out.println("AuthInterceptor - 命中白名单，允许访问");
+        PathContainer path = ServletRequestPathUtils.hasParsedRequestPath(request)
+                ? ServletRequestPathUtils.getParsedRequestPath(request).pathWithinApplication()
+                : ServletRequestPathUtils.parseAndCache(request).pathWithinApplication();
+        if (AuthWhitelist.matches(method, path)) {
+            log.debug("命中白名单，允许访问：{} {}", method, path);
             return true;
         }
 
         String token = request.getHeader("Authorization");
         if (token == null || !token.startsWith("Bearer ")) {
+            log.debug("未携带 token：{} {}", method, path);
             response.setStatus(401);
             return false;
         }
@@ -46,8 +45,10 @@ public class AuthInterceptor implements HandlerInterceptor {
         try {
             token = token.substring(7);
             Long userId = jwtUtil.getUserIdFromToken(token);
-            User user = userMapper.selectById(userId);
+            // 角色与状态取自本地缓存，稳态下鉴权不访问数据库
+            User user = userStatusCache.get(userId);
             if (user == null || !Constants.STATUS_NORMAL.equals(user.getStatus())) {
+                log.debug("用户不存在或已禁用：userId={}", userId);
                 response.setStatus(401);
                 return false;
             }
@@ -56,6 +57,7 @@ public class AuthInterceptor implements HandlerInterceptor {
             request.setAttribute("userRole", user.getRole());
             return true;
         } catch (Exception e) {
+            log.debug("token 无效：{} {}，{}", method, path, e.getMessage());
             response.setStatus(401);
             return false;
         }
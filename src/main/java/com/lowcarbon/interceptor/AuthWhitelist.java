@@ -0,0 +1,65 @@
+package com.lowcarbon.interceptor;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+
+/**
+ * 免登录接口白名单（路径不含 context-path），InterceptorConfig 的 excludePathPatterns 与 AuthInterceptor 共用
+ * 路径模式在类加载时预编译，匹配时不再构造正则
+ */
+public final class AuthWhitelist {
+
+    // 任意方法均可匹配的路径：注册、登录、文章列表、行为类型、排行榜、兑换商品、接口文档
+    public static final List<String> PUBLIC_PATHS = List.of(
+            "/user/register",
+            "/user/login",
+            "/article/list",
+            "/article/list/cursor",
+            "/footprint/behavior-types",
+            "/leaderboard/top",
+            "/leaderboard/window",
+            "/points/items",
+            "/doc.html",
+            "/webjars/**",
+            "/swagger-resources/**",
+            "/v3/api-docs/**"
+    );
+
+    // 仅 GET 可匹配的路径：文章详情
+    public static final List<String> PUBLIC_GET_PATHS = List.of(
+            "/article/{id:\\d+}"
+    );
+
+    private static final List<PathPattern> PUBLIC_PATTERNS = parse(PUBLIC_PATHS);
+    private static final List<PathPattern> PUBLIC_GET_PATTERNS = parse(PUBLIC_GET_PATHS);
+
+    private AuthWhitelist() {
+    }
+
+    /**
+     * path 为应用内路径（已去掉 context-path）
+     */
+    public static boolean matches(String method, PathContainer path) {
+        if (matchesAny(PUBLIC_PATTERNS, path)) {
+            return true;
+        }
+        return HttpMethod.GET.matches(method) && matchesAny(PUBLIC_GET_PATTERNS, path);
+    }
+
+    private static boolean matchesAny(List<PathPattern> patterns, PathContainer path) {
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<PathPattern> parse(List<String> paths) {
+        return paths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+    }
+}
@@ -0,0 +1,239 @@
+package com.lowcarbon.interceptor;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL 耗时统计与慢查询日志：按 Mapper 方法累计耗时分布，超过阈值的语句在后台线程输出（参数只记录类型，不记录值）
+ * 带 ResultHandler 的查询（如流式导出）不统计：耗时包含调用方逐行处理与客户端接收的时间，不反映 SQL 本身
+ */
+@Slf4j
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class SlowSqlInterceptor implements Interceptor {
+
+    // 慢查询日志队列长度，队列满时丢弃并计数，不阻塞业务线程
+    private static final int LOG_QUEUE_CAPACITY = 1000;
+
+    // 定期输出的统计条数（按累计耗时排序）
+    private static final int SUMMARY_TOP = 10;
+
+    @Value("${sql.slow-threshold:200}")
+    private long slowThresholdMillis;
+
+    // Mapper 方法（MappedStatement id）-> 耗时分布
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private final LongAdder droppedLogs = new LongAdder();
+
+    private final ThreadPoolExecutor logExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(LOG_QUEUE_CAPACITY),
+            r -> {
+                Thread thread = new Thread(r, "slow-sql-log");
+                thread.setDaemon(true);
+                return thread;
+            },
+            (r, executor) -> droppedLogs.increment());
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        if (args.length > 3 && args[3] != null) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            long elapsedMicros = (System.nanoTime() - start) / 1000;
+            MappedStatement ms = (MappedStatement) args[0];
+            LatencyHistogram histogram = histograms.get(ms.getId());
+            if (histogram == null) {
+                histogram = histograms.computeIfAbsent(ms.getId(), k -> new LatencyHistogram());
+            }
+            histogram.record(elapsedMicros);
+
+            if (elapsedMicros >= slowThresholdMillis * 1000) {
+                logSlowSql(invocation, ms, elapsedMicros);
+            }
+        }
+    }
+
+    /**
+     * 在当前线程取出 SQL 与参数类型，格式化与输出交给后台线程
+     */
+    private void logSlowSql(Invocation invocation, MappedStatement ms, long elapsedMicros) {
+        Object[] args = invocation.getArgs();
+        Object parameter = args[1];
+        BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : ms.getBoundSql(parameter);
+        String sql = boundSql.getSql();
+        String parameterTypes = describeParameters(ms.getConfiguration(), boundSql, parameter);
+        logExecutor.execute(() -> log.warn("慢查询 {} 耗时 {} ms，SQL: {}，参数类型: {}",
+                ms.getId(), elapsedMicros / 1000, sql.replaceAll("\\s+", " ").trim(), parameterTypes));
+    }
+
+    /**
+     * 参数只输出类型（与 DefaultParameterHandler 取值方式一致），避免日志中出现密码、手机号等数据
+     */
+    private String describeParameters(Configuration configuration, BoundSql boundSql, Object parameter) {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        MetaObject metaObject = null;
+        for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+            String property = mapping.getProperty();
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameter == null) {
+                value = null;
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+                value = parameter;
+            } else {
+                if (metaObject == null) {
+                    metaObject = configuration.newMetaObject(parameter);
+                }
+                value = metaObject.hasGetter(property) ? metaObject.getValue(property) : null;
+            }
+            joiner.add(value == null ? "null" : value.getClass().getSimpleName());
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * 定期输出累计耗时最高的 Mapper 方法及其分位数
+     */
+    @Scheduled(fixedDelayString = "${sql.stats-log-interval:300000}",
+            initialDelayString = "${sql.stats-log-interval:300000}")
+    public void logSummary() {
+        List<Map.Entry<String, LatencyHistogram>> entries = new ArrayList<>(histograms.entrySet());
+        if (entries.isEmpty()) {
+            return;
+        }
+        entries.sort(Comparator.comparingLong(
+                (Map.Entry<String, LatencyHistogram> e) -> e.getValue().getTotalMicros()).reversed());
+        StringBuilder sb = new StringBuilder("SQL 耗时统计（累计，单位 ms）：");
+        for (Map.Entry<String, LatencyHistogram> entry : entries.subList(0, Math.min(SUMMARY_TOP, entries.size()))) {
+            LatencyHistogram h = entry.getValue();
+            sb.append(System.lineSeparator())
+              .append(entry.getKey())
+              .append(" count=").append(h.getCount())
+              .append(" avg=").append(h.getCount() == 0 ? 0 : h.getTotalMicros() / h.getCount() / 1000.0)
+              .append(" p50<=").append(h.percentileMillis(0.50))
+              .append(" p95<=").append(h.percentileMillis(0.95))
+              .append(" p99<=").append(h.percentileMillis(0.99))
+              .append(" max=").append(h.getMaxMicros() / 1000.0);
+        }
+        long dropped = droppedLogs.sumThenReset();
+        if (dropped > 0) {
+            sb.append(System.lineSeparator()).append("慢查询日志队列已满，丢弃 ").append(dropped).append(" 条");
+        }
+        log.info(sb.toString());
+    }
+
+    /**
+     * 耗时分布
+     */
+    public Map<String, LatencyHistogram> getHistograms() {
+        return histograms;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        logExecutor.shutdown();
+    }
+
+    /**
+     * 固定桶的耗时直方图（桶上界单位 ms），记录时只做 LongAdder 累加
+     */
+    public static final class LatencyHistogram {
+
+        private static final long[] BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+
+        private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MILLIS.length + 1];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+        private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+        LatencyHistogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long micros) {
+            int i = 0;
+            while (i < BUCKET_BOUNDS_MILLIS.length && micros > BUCKET_BOUNDS_MILLIS[i] * 1000) {
+                i++;
+            }
+            buckets[i].increment();
+            count.increment();
+            totalMicros.add(micros);
+            maxMicros.accumulate(micros);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalMicros() {
+            return totalMicros.sum();
+        }
+
+        public long getMaxMicros() {
+            return maxMicros.get();
+        }
+
+        /**
+         * 分位数所在桶的上界（ms）；落在最后一个桶时返回最大值
+         */
+        public double percentileMillis(double percentile) {
+            long total = getCount();
+            if (total == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= target) {
+                    return BUCKET_BOUNDS_MILLIS[i];
+                }
+            }
+            return getMaxMicros() / 1000.0;
+        }
+    }
+}
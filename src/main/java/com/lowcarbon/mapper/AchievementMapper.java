@@ -2,9 +2,36 @@ package com.lowcarbon.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.lowcarbon.entity.Achievement;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
 
 @Mapper
 public interface AchievementMapper extends BaseMapper<Achievement> {
-}
 
+    /**
+     * 用户已获得勋章的规则编码
+     */
+    @Select("SELECT rule_code FROM tb_achievement WHERE user_id = #{userId} AND rule_code IS NOT NULL")
+    List<String> selectRuleCodes(Long userId);
+
+    /**
+     * 批量授予勋章，一条多值 INSERT；(user_id, rule_code) 已存在的跳过
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO tb_achievement (user_id, type, rule_code, title, description, points_change, icon_url) VALUES " +
+            "<foreach collection='achievements' item='a' separator=','>" +
+            "(#{a.userId}, #{a.type}, #{a.ruleCode}, #{a.title}, #{a.description}, #{a.pointsChange}, #{a.iconUrl})" +
+            "</foreach>" +
+            "</script>")
+    int insertIgnoreBatch(@Param("achievements") List<Achievement> achievements);
+
+    /**
+     * 按幂等键查询用户的兑换记录
+     */
+    @Select("SELECT * FROM tb_achievement WHERE user_id = #{userId} AND idempotency_key = #{idempotencyKey}")
+    Achievement selectByIdempotencyKey(Long userId, String idempotencyKey);
+}
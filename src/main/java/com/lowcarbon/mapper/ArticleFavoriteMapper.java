@@ -1,21 +1,29 @@
 package com.lowcarbon.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.lowcarbon.dto.ArticleVO;
 import com.lowcarbon.entity.ArticleFavorite;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Select;
 
-import java.util.List;
-
 @Mapper
 public interface ArticleFavoriteMapper extends BaseMapper<ArticleFavorite> {
     
-    @Select("SELECT a.*, u.username as authorName, u.nickname as authorNickname " +
+    @Select("SELECT a.id, a.title, a.cover_img, a.excerpt, a.category, a.views, a.likes_count, " +
+            "a.comments_count, a.favorites_count, a.author_id, a.is_top, a.create_time, a.update_time, " +
+            "u.username as authorName, u.nickname as authorNickname " +
             "FROM tb_article_favorite f " +
             "LEFT JOIN tb_article a ON f.article_id = a.id " +
             "LEFT JOIN tb_user u ON a.author_id = u.id " +
             "WHERE f.user_id = #{userId} " +
-            "ORDER BY f.create_time DESC")
-    List<ArticleVO> selectFavoriteArticlesByUserId(Long userId);
+            "ORDER BY f.create_time DESC, f.id DESC")
+    IPage<ArticleVO> selectFavoriteArticlesByUserId(IPage<ArticleVO> page, Long userId);
+
+    /**
+     * 依赖 uk_article_user 唯一键去重：返回 1 表示新增收藏，返回 0 表示已收藏过
+     */
+    @Insert("INSERT IGNORE INTO tb_article_favorite (article_id, user_id) VALUES (#{articleId}, #{userId})")
+    int insertIgnore(Long articleId, Long userId);
 }
@@ -2,8 +2,15 @@ package com.lowcarbon.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.lowcarbon.entity.ArticleLike;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 
 @Mapper
 public interface ArticleLikeMapper extends BaseMapper<ArticleLike> {
+
+    /**
+     * 依赖 uk_article_user 唯一键去重：返回 1 表示新增点赞，返回 0 表示已点赞过
+     */
+    @Insert("INSERT IGNORE INTO tb_article_like (article_id, user_id) VALUES (#{articleId}, #{userId})")
+    int insertIgnore(Long articleId, Long userId);
 }
@@ -1,13 +1,60 @@
 package com.lowcarbon.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.lowcarbon.entity.Article;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.util.Map;
+
 @Mapper
 public interface ArticleMapper extends BaseMapper<Article> {
-    @Update("UPDATE tb_article SET views = views + 1 WHERE id = #{id}")
-    void incrementViews(Long id);
-}
+    /**
+     * 原子增减点赞数（不小于0）
+     */
+    @Update("UPDATE tb_article SET likes_count = GREATEST(likes_count + #{delta}, 0) WHERE id = #{id}")
+    int addLikesCount(Long id, int delta);
+
+    /**
+     * 原子增减收藏数（不小于0）
+     */
+    @Update("UPDATE tb_article SET favorites_count = GREATEST(favorites_count + #{delta}, 0) WHERE id = #{id}")
+    int addFavoritesCount(Long id, int delta);
+
+    /**
+     * 原子增减评论数（不小于0）
+     */
+    @Update("UPDATE tb_article SET comments_count = GREATEST(comments_count + #{delta}, 0) WHERE id = #{id}")
+    int addCommentsCount(Long id, int delta);
 
+    /**
+     * 批量累加浏览量：deltas 为 文章ID -> 增量，一条 UPDATE ... CASE 完成
+     */
+    @Update("<script>" +
+            "UPDATE tb_article SET views = views + CASE id " +
+            "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+            "ELSE 0 END WHERE id IN " +
+            "<foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int addViewsBatch(@Param("deltas") Map<Long, Long> deltas);
+
+    /**
+     * 回填摘要（只写入仍为空的摘要，不覆盖期间新建/修改文章时生成的摘要）
+     */
+    @Update("UPDATE tb_article SET excerpt = #{excerpt} WHERE id = #{id} AND excerpt = ''")
+    int fillExcerpt(Long id, String excerpt);
+
+    /**
+     * 全文检索分页：筛选条件（含布尔模式的短语 MATCH 条件）由 wrapper 提供，按自然语言模式的相关度倒序
+     */
+    @Select("SELECT ${ew.sqlSelect}, MATCH(title, content) AGAINST(#{keyword} IN NATURAL LANGUAGE MODE) AS score " +
+            "FROM tb_article ${ew.customSqlSegment} " +
+            "ORDER BY score DESC, id DESC")
+    IPage<Article> searchPage(IPage<Article> page, @Param("keyword") String keyword,
+                              @Param(Constants.WRAPPER) Wrapper<Article> wrapper);
+}
@@ -0,0 +1,33 @@
+package com.lowcarbon.mapper;
+
+import com.lowcarbon.entity.BehaviorFactor;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 排放系数表 tb_behavior_factor：(version, behavior_type) -> 名称/单位/系数，新版本整组插入，旧版本保留以便追溯
+ */
+@Mapper
+public interface BehaviorFactorMapper {
+
+    /**
+     * 当前最新版本号
+     */
+    @Select("SELECT MAX(version) FROM tb_behavior_factor")
+    Integer getLatestVersion();
+
+    /**
+     * 指定版本的行数
+     */
+    @Select("SELECT COUNT(*) FROM tb_behavior_factor WHERE version = #{version}")
+    int countByVersion(Integer version);
+
+    /**
+     * 指定版本的全部行为系数
+     */
+    @Select("SELECT version, behavior_type, behavior_name, unit, description, coefficient, sort_order, visible, create_time " +
+            "FROM tb_behavior_factor WHERE version = #{version} ORDER BY sort_order, behavior_type")
+    List<BehaviorFactor> selectByVersion(Integer version);
+}
@@ -0,0 +1,86 @@
+package com.lowcarbon.mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 碳足迹日汇总表 tb_footprint_daily：(user_id, record_date, behavior_type) -> 次数/减排量/积分
+ */
+@Mapper
+public interface FootprintDailyMapper {
+
+    /**
+     * 按差值累加一条汇总（不存在则插入）
+     */
+    @Insert("INSERT INTO tb_footprint_daily " +
+            "(user_id, record_date, behavior_type, behavior_name, record_count, reduction_amount, points_earned) " +
+            "VALUES (#{userId}, #{recordDate}, #{behaviorType}, #{behaviorName}, #{countDelta}, #{reductionDelta}, #{pointsDelta}) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "behavior_name = IFNULL(VALUES(behavior_name), behavior_name), " +
+            "record_count = record_count + VALUES(record_count), " +
+            "reduction_amount = reduction_amount + VALUES(reduction_amount), " +
+            "points_earned = points_earned + VALUES(points_earned)")
+    int upsertDelta(Long userId, LocalDate recordDate, String behaviorType, String behaviorName,
+                    int countDelta, BigDecimal reductionDelta, int pointsDelta);
+
+    /**
+     * 删除已无记录的汇总行
+     */
+    @Delete("DELETE FROM tb_footprint_daily " +
+            "WHERE user_id = #{userId} AND record_date = #{recordDate} AND behavior_type = #{behaviorType} " +
+            "AND record_count <= 0")
+    int deleteEmpty(Long userId, LocalDate recordDate, String behaviorType);
+
+    /**
+     * 重建：清空用户的汇总
+     */
+    @Delete("DELETE FROM tb_footprint_daily WHERE user_id = #{userId}")
+    int deleteByUserId(Long userId);
+
+    /**
+     * 重建：由 tb_footprint 聚合用户每天每种行为的汇总（一致性读，不锁明细行）
+     */
+    @Select("SELECT record_date AS recordDate, behavior_type AS behaviorType, MAX(behavior_name) AS behaviorName, " +
+            "COUNT(*) AS recordCount, SUM(reduction_amount) AS reductionAmount, SUM(points_earned) AS pointsEarned " +
+            "FROM tb_footprint " +
+            "WHERE user_id = #{userId} AND record_date IS NOT NULL " +
+            "GROUP BY record_date, behavior_type")
+    List<Map<String, Object>> aggregateByUserId(Long userId);
+
+    /**
+     * 重建：写入用户的汇总行（多值 INSERT）
+     */
+    @Insert("<script>" +
+            "INSERT INTO tb_footprint_daily " +
+            "(user_id, record_date, behavior_type, behavior_name, record_count, reduction_amount, points_earned) VALUES " +
+            "<foreach collection='rows' item='row' separator=','>" +
+            "(#{userId}, #{row.recordDate}, #{row.behaviorType}, #{row.behaviorName}, " +
+            "#{row.recordCount}, #{row.reductionAmount}, #{row.pointsEarned})" +
+            "</foreach>" +
+            "</script>")
+    int insertRows(@Param("userId") Long userId, @Param("rows") List<Map<String, Object>> rows);
+
+    /**
+     * 重建：需要处理的用户（有明细或有汇总）
+     */
+    @Select("SELECT user_id FROM tb_footprint UNION SELECT user_id FROM tb_footprint_daily")
+    List<Long> selectUserIds();
+
+    /**
+     * 日期范围内每个用户每天的记录数与减排量合计（时间窗口排行重建使用）
+     */
+    @Select("SELECT user_id AS userId, record_date AS recordDate, " +
+            "SUM(record_count) AS recordCount, SUM(reduction_amount) AS reductionAmount " +
+            "FROM tb_footprint_daily " +
+            "WHERE record_date BETWEEN #{startDate} AND #{endDate} " +
+            "GROUP BY user_id, record_date")
+    List<Map<String, Object>> selectUserDailyTotals(LocalDate startDate, LocalDate endDate);
+}
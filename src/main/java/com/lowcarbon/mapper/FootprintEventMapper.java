@@ -0,0 +1,53 @@
+package com.lowcarbon.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.lowcarbon.entity.FootprintEvent;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 碳足迹事件发件箱 tb_footprint_event：与记录在同一事务写入，由后台线程处理后删除
+ */
+@Mapper
+public interface FootprintEventMapper extends BaseMapper<FootprintEvent> {
+
+    /**
+     * 按写入顺序取待处理事件
+     */
+    @Select("SELECT id, event_type, user_id, payload, attempts FROM tb_footprint_event " +
+            "WHERE status = 0 ORDER BY id LIMIT #{limit}")
+    List<FootprintEvent> selectPending(int limit);
+
+    /**
+     * 锁定并返回仍存在的事件ID（已被处理删除的不返回），防止同一事件重复处理
+     */
+    @Select("<script>" +
+            "SELECT id FROM tb_footprint_event WHERE status = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "FOR UPDATE" +
+            "</script>")
+    List<Long> lockPending(@Param("ids") List<Long> ids);
+
+    /**
+     * 记录一次处理失败；status 为 2 时不再重试
+     */
+    @Update("UPDATE tb_footprint_event SET attempts = attempts + 1, last_error = #{lastError}, status = #{status} " +
+            "WHERE id = #{id}")
+    int recordFailure(Long id, String lastError, int status);
+
+    /**
+     * 用户尚未生效的事件ID（待处理与处理失败的都算，处理成功的事件已删除），加锁读：日汇总重建期间阻止该用户写入新事件
+     */
+    @Select("SELECT id FROM tb_footprint_event WHERE user_id = #{userId} FOR UPDATE")
+    List<Long> lockUnappliedIds(Long userId);
+
+    /**
+     * 处理失败的事件改回待处理，并清零失败次数
+     */
+    @Update("UPDATE tb_footprint_event SET status = 0, attempts = 0 WHERE status = 2")
+    int requeueFailed();
+}
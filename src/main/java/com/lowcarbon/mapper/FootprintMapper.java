@@ -3,7 +3,11 @@ package com.lowcarbon.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.lowcarbon.entity.Footprint;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.ResultType;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -14,29 +18,34 @@ import java.util.Map;
 public interface FootprintMapper extends BaseMapper<Footprint> {
     
     /**
-     * 获取用户指定日期范围内的碳足迹统计
+     * 获取用户指定日期范围内的碳足迹统计（总减排、总积分、记录数一次聚合；起止日期均可为空）
      */
-    @Select("SELECT SUM(reduction_amount) as totalReduction, SUM(points_earned) as totalPoints " +
+    @Select("<script>" +
+            "SELECT COALESCE(SUM(reduction_amount), 0) as totalReduction, " +
+            "COALESCE(SUM(points_earned), 0) as totalPoints, COUNT(*) as totalRecords " +
             "FROM tb_footprint " +
-            "WHERE user_id = #{userId} AND record_date BETWEEN #{startDate} AND #{endDate}")
+            "WHERE user_id = #{userId} " +
+            "<if test='startDate != null'>AND record_date &gt;= #{startDate} </if>" +
+            "<if test='endDate != null'>AND record_date &lt;= #{endDate} </if>" +
+            "</script>")
     Map<String, Object> getStatistics(Long userId, LocalDate startDate, LocalDate endDate);
     
     /**
-     * 获取用户按行为类型的统计
+     * 获取用户按行为类型的统计（读取日汇总表 tb_footprint_daily）
      */
-    @Select("SELECT behavior_type, behavior_name, COUNT(*) as count, " +
+    @Select("SELECT behavior_type, MAX(behavior_name) as behavior_name, SUM(record_count) as count, " +
             "SUM(reduction_amount) as totalReduction, SUM(points_earned) as totalPoints " +
-            "FROM tb_footprint " +
+            "FROM tb_footprint_daily " +
             "WHERE user_id = #{userId} " +
-            "GROUP BY behavior_type, behavior_name " +
+            "GROUP BY behavior_type " +
             "ORDER BY totalReduction DESC")
     List<Map<String, Object>> getStatisticsByBehaviorType(Long userId);
     
     /**
-     * 获取用户按日期的统计（用于趋势图）
+     * 获取用户按日期的统计（用于趋势图，读取日汇总表 tb_footprint_daily）
      */
     @Select("SELECT record_date, SUM(reduction_amount) as dailyReduction, SUM(points_earned) as dailyPoints " +
-            "FROM tb_footprint " +
+            "FROM tb_footprint_daily " +
             "WHERE user_id = #{userId} AND record_date BETWEEN #{startDate} AND #{endDate} " +
             "GROUP BY record_date " +
             "ORDER BY record_date")
@@ -51,10 +60,10 @@ public interface FootprintMapper extends BaseMapper<Footprint> {
     
     /**
      * 获取指定月份内的打卡日历（按日期聚合：次数与行为类型列表）
-     * types 字段为行为类型的逗号分隔字符串（使用 GROUP_CONCAT）
+     * types 字段为行为类型的逗号分隔字符串（使用 GROUP_CONCAT，读取日汇总表 tb_footprint_daily）
      */
-    @Select("SELECT record_date, COUNT(*) as count, GROUP_CONCAT(DISTINCT behavior_type) as types " +
-            "FROM tb_footprint " +
+    @Select("SELECT record_date, SUM(record_count) as count, GROUP_CONCAT(behavior_type) as types " +
+            "FROM tb_footprint_daily " +
             "WHERE user_id = #{userId} AND record_date BETWEEN #{startDate} AND #{endDate} " +
             "GROUP BY record_date " +
             "ORDER BY record_date")
@@ -67,15 +76,56 @@ public interface FootprintMapper extends BaseMapper<Footprint> {
     Long getTotalCheckins(Long userId);
     
     /**
-     * 获取本月已打卡天数（去重日期）
+     * 获取本月已打卡天数（去重日期，读取日汇总表 tb_footprint_daily）
      */
-    @Select("SELECT COUNT(DISTINCT record_date) FROM tb_footprint " +
+    @Select("SELECT COUNT(DISTINCT record_date) FROM tb_footprint_daily " +
             "WHERE user_id = #{userId} AND record_date BETWEEN #{startDate} AND #{endDate}")
     Long getMonthlyCheckedDays(Long userId, LocalDate startDate, LocalDate endDate);
     
     /**
-     * 判断某日是否有任意打卡（用于 streak 计算）
+     * 计算截至 endDate 的连续打卡天数（gaps-and-islands：按日期倒序编号后，连续日期的 record_date + (序号 - 1) 恒等于 endDate）
+     */
+    @Select("SELECT COUNT(*) FROM (" +
+            "SELECT record_date, ROW_NUMBER() OVER (ORDER BY record_date DESC) AS rn " +
+            "FROM (SELECT DISTINCT record_date FROM tb_footprint " +
+            "WHERE user_id = #{userId} AND record_date <= #{endDate}) d" +
+            ") t WHERE TIMESTAMPADD(DAY, rn - 1, record_date) = #{endDate}")
+    int getStreakEndingAt(Long userId, LocalDate endDate);
+    
+    /**
+     * 获取用户最近一条记录的日期
+     */
+    @Select("SELECT MAX(record_date) FROM tb_footprint WHERE user_id = #{userId}")
+    LocalDate getLastRecordDate(Long userId);
+    
+    /**
+     * 流式读取用户记录（MySQL 逐行流式返回，fetchSize=Integer.MIN_VALUE），每行交给 handler 处理，不在内存中物化结果集
+     */
+    @Select("<script>" +
+            "SELECT id, user_id, behavior_type, behavior_name, coefficient, factor_version, data_value, reduction_amount, " +
+            "points_earned, record_date, remark, create_time " +
+            "FROM tb_footprint " +
+            "WHERE user_id = #{userId} " +
+            "<if test='startDate != null'>AND record_date &gt;= #{startDate} </if>" +
+            "<if test='endDate != null'>AND record_date &lt;= #{endDate} </if>" +
+            "ORDER BY record_date DESC, create_time DESC, id DESC" +
+            "</script>")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(Footprint.class)
+    void streamByUser(Long userId, LocalDate startDate, LocalDate endDate, ResultHandler<Footprint> handler);
+    
+    /**
+     * 用户按行为类型的记录数、减排量合计与最大记录ID（勋章进度冷启动加载，与最大ID对齐以跳过已计入的事件）
+     */
+    @Select("SELECT behavior_type AS behaviorType, COUNT(*) AS recordCount, " +
+            "SUM(reduction_amount) AS reductionAmount, MAX(id) AS maxId " +
+            "FROM tb_footprint WHERE user_id = #{userId} " +
+            "GROUP BY behavior_type")
+    List<Map<String, Object>> getBehaviorTotals(Long userId);
+    
+    /**
+     * 加锁读取记录（修改、删除时使用）：并发修改/删除同一条记录时排队执行，按差值修正用户累计时读到的是最新内容
      */
-    @Select("SELECT COUNT(*) FROM tb_footprint WHERE user_id = #{userId} AND record_date = #{recordDate}")
-    int existsAnyOnDate(Long userId, LocalDate recordDate);
+    @Select("SELECT * FROM tb_footprint WHERE id = #{id} FOR UPDATE")
+    Footprint selectByIdForUpdate(Long id);
 }
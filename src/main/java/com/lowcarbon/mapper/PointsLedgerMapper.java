@@ -0,0 +1,12 @@
+package com.lowcarbon.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.lowcarbon.entity.PointsLedger;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 积分流水 tb_points_ledger：只追加；(user_id, seq) 唯一
+ */
+@Mapper
+public interface PointsLedgerMapper extends BaseMapper<PointsLedger> {
+}
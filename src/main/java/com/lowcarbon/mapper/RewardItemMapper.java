@@ -0,0 +1,16 @@
+package com.lowcarbon.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.lowcarbon.entity.RewardItem;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Update;
+
+@Mapper
+public interface RewardItemMapper extends BaseMapper<RewardItem> {
+
+    /**
+     * 条件扣减一件库存，库存不足（或已下架）时返回 0，不会超卖
+     */
+    @Update("UPDATE tb_reward_item SET stock = stock - 1 WHERE id = #{id} AND stock > 0 AND status = 1")
+    int decrementStock(Long id);
+}
@@ -3,8 +3,55 @@ package com.lowcarbon.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.lowcarbon.entity.User;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
-}
 
+    /**
+     * 原子累加用户的总减排量（按差值，结果不小于0），避免读-改-写丢失并发更新；积分经 PointsService 记流水变更
+     */
+    @Update("UPDATE tb_user SET total_reduction = GREATEST(total_reduction + #{deltaReduction}, 0) WHERE id = #{userId}")
+    int addReduction(Long userId, BigDecimal deltaReduction);
+
+    /**
+     * 读取积分余额与版本号（一致性读，不加锁）
+     */
+    @Select("SELECT id, points, points_version FROM tb_user WHERE id = #{userId}")
+    User selectBalance(Long userId);
+
+    /**
+     * 读取积分余额与版本号并锁定用户行（后台处理碳足迹事件时使用，保证比较并更新一次成功）
+     */
+    @Select("SELECT id, points, points_version FROM tb_user WHERE id = #{userId} FOR UPDATE")
+    User selectBalanceForUpdate(Long userId);
+
+    /**
+     * 比较并更新积分：版本号与读取时一致才写入新余额并将版本号 +1，否则返回 0（已被其他请求修改）
+     */
+    @Update("UPDATE tb_user SET points = #{points}, points_version = points_version + 1 " +
+            "WHERE id = #{userId} AND points_version = #{expectedVersion}")
+    int compareAndSetPoints(Long userId, long expectedVersion, int points);
+
+    /**
+     * 新增记录后推进连续打卡：记录日期为最近日期次日则 +1，同日不变，间隔超过一天则重置为 1
+     * 记录日期早于 last_checkin_date（补录历史）时不更新，返回 0，由调用方重算
+     */
+    @Update("UPDATE tb_user SET " +
+            "current_streak = CASE WHEN last_checkin_date = #{recordDate} THEN current_streak " +
+            "WHEN TIMESTAMPADD(DAY, 1, last_checkin_date) = #{recordDate} THEN current_streak + 1 " +
+            "ELSE 1 END, " +
+            "last_checkin_date = #{recordDate} " +
+            "WHERE id = #{userId} AND (last_checkin_date IS NULL OR last_checkin_date <= #{recordDate})")
+    int advanceStreak(Long userId, LocalDate recordDate);
+
+    /**
+     * 覆盖写入连续打卡状态（补录、修改、删除记录后重算使用）
+     */
+    @Update("UPDATE tb_user SET current_streak = #{currentStreak}, last_checkin_date = #{lastCheckinDate} WHERE id = #{userId}")
+    int setStreak(Long userId, int currentStreak, LocalDate lastCheckinDate);
+}
@@ -8,8 +8,10 @@ import com.lowcarbon.dto.ArticleQueryDTO;
 import com.lowcarbon.dto.ArticleUpdateDTO;
 import com.lowcarbon.dto.ArticleVO;
 import com.lowcarbon.dto.CommentVO;
+import com.lowcarbon.dto.CursorPageVO;
 import com.lowcarbon.entity.Article;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ArticleService extends IService<Article> {
@@ -18,6 +20,17 @@ public interface ArticleService extends IService<Article> {
      */
     IPage<ArticleVO> getArticleList(ArticleQueryDTO queryDTO);
 
+    /**
+     * 游标（keyset）方式查询文章列表：按 (is_top, create_time, id) 倒序，从上一页最后一条之后继续读取 size 条，不做 COUNT
+     */
+    List<ArticleVO> getArticleListAfter(ArticleQueryDTO queryDTO, int size, Integer lastIsTop, LocalDateTime lastCreateTime, Long lastId);
+
+    /**
+     * 游标分页查询文章列表（游客可访问）：cursor 为上一页返回的 nextCursor，为空表示第一页。
+     * 关键词只作筛选，结果仍按置顶与发布时间排序，不按相关度排序（相关度排序请用分页列表）
+     */
+    CursorPageVO<ArticleVO> getArticleCursorPage(ArticleQueryDTO queryDTO, String cursor);
+
     /**
      * 获取文章详情（自动增加浏览量）
      */
@@ -1,10 +1,16 @@
 package com.lowcarbon.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.lowcarbon.dto.CursorPageVO;
 import com.lowcarbon.dto.FootprintCreateDTO;
+import com.lowcarbon.dto.FootprintImportVO;
 import com.lowcarbon.dto.FootprintVO;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -16,9 +22,30 @@ public interface FootprintService {
     FootprintVO createFootprint(FootprintCreateDTO createDTO, Long userId);
     
     /**
-     * 获取用户碳足迹记录列表（分页）
+     * 批量导入碳足迹记录（先在事务外读完并逐条校验，任一条不合法整批不导入；再在一个事务中批量插入，每批写入一条事件）
      */
-    IPage<FootprintVO> getFootprintList(Long userId, Integer pageNum, Integer pageSize, LocalDate startDate, LocalDate endDate);
+    FootprintImportVO importFootprints(Iterator<FootprintCreateDTO> rows, Long userId);
+    
+    /**
+     * 获取用户碳足迹记录列表（分页，searchCount=false 时跳过 COUNT 查询）
+     */
+    IPage<FootprintVO> getFootprintList(Long userId, Integer pageNum, Integer pageSize, LocalDate startDate, LocalDate endDate, boolean searchCount);
+    
+    /**
+     * 游标（keyset）方式获取碳足迹记录：按 (record_date, create_time, id) 倒序，从上一页最后一条之后继续读取，不做 COUNT
+     */
+    List<FootprintVO> getFootprintListAfter(Long userId, Integer size, LocalDate startDate, LocalDate endDate,
+                                            LocalDate lastRecordDate, LocalDateTime lastCreateTime, Long lastId);
+    
+    /**
+     * 游标分页获取碳足迹记录：cursor 为上一页返回的 nextCursor，为空表示第一页
+     */
+    CursorPageVO<FootprintVO> getFootprintCursorPage(Long userId, Integer size, LocalDate startDate, LocalDate endDate, String cursor);
+    
+    /**
+     * 流式导出用户碳足迹记录（format 为 csv 或 ndjson），逐行写出，内存占用与记录数无关
+     */
+    void exportFootprints(Long userId, LocalDate startDate, LocalDate endDate, String format, OutputStream out) throws IOException;
     
     /**
      * 获取用户碳足迹统计数据
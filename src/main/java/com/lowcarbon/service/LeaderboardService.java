@@ -0,0 +1,40 @@
+package com.lowcarbon.service;
+
+import com.lowcarbon.dto.LeaderboardEntryVO;
+import com.lowcarbon.dto.WindowLeaderboardVO;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface LeaderboardService {
+
+    /**
+     * 用户累计减排量/积分发生变化（与累计减排量、积分余额的实际差值一致）；在事务中调用时于提交后生效
+     */
+    void applyDelta(Long userId, BigDecimal deltaReduction, int deltaPoints);
+
+    /**
+     * 排行榜前 size 名（metric 为 reduction 或 points）
+     */
+    List<LeaderboardEntryVO> getTop(String metric, int size);
+
+    /**
+     * 用户在排行榜中的名次
+     */
+    LeaderboardEntryVO getMyRank(String metric, Long userId);
+
+    /**
+     * 时间窗口排行前 size 名（period 为 week 或 month，metric 为 reduction 或 days）
+     */
+    WindowLeaderboardVO getWindowTop(String period, String metric, int size);
+
+    /**
+     * 用户在时间窗口排行中的名次
+     */
+    LeaderboardEntryVO getWindowRank(String period, String metric, Long userId);
+
+    /**
+     * 以数据库为准重建排行
+     */
+    void reconcile();
+}
@@ -0,0 +1,31 @@
+package com.lowcarbon.service;
+
+import com.lowcarbon.dto.CursorPageVO;
+import com.lowcarbon.dto.RedemptionVO;
+import com.lowcarbon.entity.PointsLedger;
+import com.lowcarbon.entity.RewardItem;
+
+import java.util.List;
+
+public interface PointsService {
+
+    /**
+     * 变更用户积分并追加一条流水（结果不小于0），须在事务中调用；返回实际变化量
+     */
+    int changePoints(Long userId, int delta, String bizType, String bizId);
+
+    /**
+     * 兑换商品：扣减积分与库存并写入兑换记录；相同幂等键的重复请求返回第一次的结果
+     */
+    RedemptionVO redeem(Long userId, Long itemId, String idempotencyKey);
+
+    /**
+     * 上架的兑换商品
+     */
+    List<RewardItem> listItems();
+
+    /**
+     * 游标分页获取积分流水（按序号倒序）
+     */
+    CursorPageVO<PointsLedger> getLedger(Long userId, Integer size, String cursor);
+}
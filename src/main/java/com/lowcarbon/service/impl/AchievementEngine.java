@@ -0,0 +1,383 @@
+package com.lowcarbon.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.lowcarbon.entity.Achievement;
+import com.lowcarbon.entity.Footprint;
+import com.lowcarbon.entity.User;
+import com.lowcarbon.event.FootprintAmendedEvent;
+import com.lowcarbon.event.FootprintDeletedEvent;
+import com.lowcarbon.event.FootprintRecordedEvent;
+import com.lowcarbon.mapper.AchievementMapper;
+import com.lowcarbon.mapper.FootprintMapper;
+import com.lowcarbon.mapper.UserMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 勋章规则引擎：碳足迹事件在事务提交后入队，由后台线程按批处理，不占用请求线程
+ * 每个用户在内存中维护累计减排量、记录数、各行为次数与连续打卡天数，新记录只累加计数并检查受影响的规则；
+ * 用户首次出现或记录被修改/删除后才从数据库重新加载；新授予的勋章按批写入 tb_achievement
+ */
+@Slf4j
+@Component
+public class AchievementEngine {
+
+    public static final int TYPE_BADGE = 1;
+
+    // 事件队列长度；队列满时只记下用户，由后台线程重新加载后整体评估，不阻塞业务线程
+    private static final int QUEUE_CAPACITY = 10000;
+
+    // 每批最多处理的事件数，同一批新授予的勋章一次写入
+    private static final int BATCH_SIZE = 500;
+
+    private static final String METRIC_REDUCTION = "REDUCTION";
+    private static final String METRIC_STREAK = "STREAK";
+    private static final String METRIC_RECORDS = "RECORDS";
+    private static final String METRIC_BEHAVIOR = "BEHAVIOR";
+
+    // 勋章规则：编码、名称、描述、指标、行为类型（仅 BEHAVIOR）、阈值（减排量单位 0.01 kg）
+    private static final List<Rule> RULES = List.of(
+            new Rule("FIRST_RECORD", "低碳起步", "记录第一条低碳行为", METRIC_RECORDS, null, 1),
+            new Rule("RECORDS_100", "低碳达人", "累计记录 100 条低碳行为", METRIC_RECORDS, null, 100),
+            new Rule("RECORDS_1000", "低碳大师", "累计记录 1000 条低碳行为", METRIC_RECORDS, null, 1000),
+            new Rule("REDUCTION_10", "减排新星", "累计减排 10 kg", METRIC_REDUCTION, null, 1000),
+            new Rule("REDUCTION_100", "减排先锋", "累计减排 100 kg", METRIC_REDUCTION, null, 10000),
+            new Rule("REDUCTION_1000", "减排卫士", "累计减排 1000 kg", METRIC_REDUCTION, null, 100000),
+            new Rule("STREAK_7", "坚持一周", "连续 7 天有低碳记录", METRIC_STREAK, null, 7),
+            new Rule("STREAK_30", "坚持一月", "连续 30 天有低碳记录", METRIC_STREAK, null, 30),
+            new Rule("STREAK_100", "百日坚持", "连续 100 天有低碳记录", METRIC_STREAK, null, 100),
+            new Rule("BUS_50", "公交达人", "公交出行 50 次", METRIC_BEHAVIOR, "BUS", 50),
+            new Rule("SUBWAY_50", "地铁达人", "地铁出行 50 次", METRIC_BEHAVIOR, "SUBWAY", 50),
+            new Rule("BIKE_50", "骑行达人", "骑行 50 次", METRIC_BEHAVIOR, "BIKE", 50),
+            new Rule("WALK_50", "步行达人", "步行 50 次", METRIC_BEHAVIOR, "WALK", 50),
+            new Rule("VEGETARIAN_30", "素食主义", "选择素食 30 次", METRIC_BEHAVIOR, "VEGETARIAN", 30),
+            new Rule("RECYCLE_30", "分类能手", "垃圾分类 30 次", METRIC_BEHAVIOR, "RECYCLE", 30)
+    );
+
+    // 指标（BEHAVIOR 为行为类型）-> 按阈值升序的规则
+    private static final Map<String, List<Rule>> RULES_BY_METRIC = new HashMap<>();
+
+    static {
+        for (Rule rule : RULES) {
+            String key = METRIC_BEHAVIOR.equals(rule.metric) ? rule.behaviorType : rule.metric;
+            RULES_BY_METRIC.computeIfAbsent(key, k -> new ArrayList<>()).add(rule);
+        }
+        RULES_BY_METRIC.values().forEach(rules -> rules.sort(Comparator.comparingLong(r -> r.threshold)));
+    }
+
+    @Autowired
+    private FootprintMapper footprintMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private AchievementMapper achievementMapper;
+
+    @Value("${achievement.progress-cache-size:10000}")
+    private int progressCacheSize;
+
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    // 事件因队列满被丢弃的用户
+    private final Set<Long> overflowUsers = ConcurrentHashMap.newKeySet();
+
+    // 用户进度（LRU，仅后台线程访问）
+    private Map<Long, Progress> progresses;
+
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        progresses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Progress> eldest) {
+                return size() > progressCacheSize;
+            }
+        };
+        running = true;
+        worker = new Thread(this::run, "achievement-engine");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecorded(FootprintRecordedEvent event) {
+        enqueue(event.getUserId(), event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAmended(FootprintAmendedEvent event) {
+        enqueue(event.getUserId(), event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(FootprintDeletedEvent event) {
+        enqueue(event.getUserId(), event);
+    }
+
+    private void enqueue(Long userId, Object event) {
+        if (!queue.offer(event)) {
+            overflowUsers.add(userId);
+        }
+    }
+
+    private void run() {
+        List<Object> events = new ArrayList<>(BATCH_SIZE);
+        while (running) {
+            try {
+                Object first = queue.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    events.add(first);
+                    queue.drainTo(events, BATCH_SIZE - 1);
+                }
+                if (!events.isEmpty() || !overflowUsers.isEmpty()) {
+                    processBatch(events);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("勋章评估失败", e);
+            } finally {
+                events.clear();
+            }
+        }
+    }
+
+    private void processBatch(List<Object> events) {
+        List<Achievement> awards = new ArrayList<>();
+        Set<Long> userIds = new HashSet<>();
+        try {
+            for (Object event : events) {
+                if (event instanceof FootprintRecordedEvent recorded) {
+                    userIds.add(recorded.getUserId());
+                    applyRecorded(recorded.getUserId(), recorded.getFootprints(), awards);
+                } else if (event instanceof FootprintAmendedEvent amended) {
+                    // 修改可能使计数增减，重新加载后整体评估
+                    userIds.add(amended.getUserId());
+                    progresses.remove(amended.getUserId());
+                    evaluateAll(progress(amended.getUserId()), awards);
+                } else if (event instanceof FootprintDeletedEvent deleted) {
+                    // 删除不会新达成规则（已授予的勋章不收回），下次事件时重新加载
+                    progresses.remove(deleted.getUserId());
+                }
+            }
+            for (Long userId : new ArrayList<>(overflowUsers)) {
+                overflowUsers.remove(userId);
+                userIds.add(userId);
+                progresses.remove(userId);
+                evaluateAll(progress(userId), awards);
+            }
+            saveAwards(awards);
+        } catch (RuntimeException e) {
+            // 内存中的已授予标记可能未落库，丢弃这些用户的进度，下次从数据库重新加载
+            userIds.forEach(progresses::remove);
+            throw e;
+        }
+    }
+
+    /**
+     * 新增记录：累加计数，只检查受影响的规则
+     */
+    private void applyRecorded(Long userId, List<Footprint> footprints, List<Achievement> awards) {
+        Progress progress = progresses.get(userId);
+        if (progress == null) {
+            // 在事务提交后加载，已包含本次记录
+            evaluateAll(progress(userId), awards);
+            return;
+        }
+        Set<String> behaviorTypes = new HashSet<>();
+        boolean streakChanged = false;
+        boolean backfilled = false;
+        for (Footprint footprint : footprints) {
+            // 加载进度时已计入计数的记录（连续打卡状态在事件处理后才更新，仍需推进）
+            if (footprint.getId() == null || footprint.getId() > progress.loadedMaxId) {
+                progress.records++;
+                progress.reductionCents += toCents(footprint.getReductionAmount());
+                progress.behaviorCounts.merge(footprint.getBehaviorType(), 1L, Long::sum);
+                behaviorTypes.add(footprint.getBehaviorType());
+            }
+
+            // 与 UserMapper.advanceStreak 一致推进连续打卡（同日重复推进无影响）
+            LocalDate date = footprint.getRecordDate();
+            if (date == null || date.equals(progress.lastRecordDate)) {
+                continue;
+            }
+            if (progress.lastRecordDate == null || date.isAfter(progress.lastRecordDate)) {
+                boolean consecutive = progress.lastRecordDate != null && date.equals(progress.lastRecordDate.plusDays(1));
+                progress.streak = consecutive ? progress.streak + 1 : 1;
+                progress.lastRecordDate = date;
+                streakChanged = true;
+            } else {
+                backfilled = true;
+            }
+        }
+        if (backfilled) {
+            // 补录历史日期可能连接起断开的区间，读取事务中已重算的连续打卡状态
+            loadStreak(progress);
+            streakChanged = true;
+        }
+
+        evaluate(progress, RULES_BY_METRIC.get(METRIC_RECORDS), progress.records, awards);
+        evaluate(progress, RULES_BY_METRIC.get(METRIC_REDUCTION), progress.reductionCents, awards);
+        if (streakChanged) {
+            evaluate(progress, RULES_BY_METRIC.get(METRIC_STREAK), progress.streak, awards);
+        }
+        for (String behaviorType : behaviorTypes) {
+            evaluate(progress, RULES_BY_METRIC.get(behaviorType), progress.behaviorCounts.get(behaviorType), awards);
+        }
+    }
+
+    private void evaluateAll(Progress progress, List<Achievement> awards) {
+        evaluate(progress, RULES_BY_METRIC.get(METRIC_RECORDS), progress.records, awards);
+        evaluate(progress, RULES_BY_METRIC.get(METRIC_REDUCTION), progress.reductionCents, awards);
+        evaluate(progress, RULES_BY_METRIC.get(METRIC_STREAK), progress.streak, awards);
+        progress.behaviorCounts.forEach((behaviorType, count) ->
+                evaluate(progress, RULES_BY_METRIC.get(behaviorType), count, awards));
+    }
+
+    /**
+     * 规则按阈值升序，遇到未达到的阈值即停止
+     */
+    private void evaluate(Progress progress, List<Rule> rules, long value, List<Achievement> awards) {
+        if (rules == null) {
+            return;
+        }
+        for (Rule rule : rules) {
+            if (value < rule.threshold) {
+                return;
+            }
+            if (progress.awarded.add(rule.code)) {
+                awards.add(rule.toAchievement(progress.userId));
+            }
+        }
+    }
+
+    private void saveAwards(List<Achievement> awards) {
+        for (int from = 0; from < awards.size(); from += BATCH_SIZE) {
+            achievementMapper.insertIgnoreBatch(awards.subList(from, Math.min(from + BATCH_SIZE, awards.size())));
+        }
+        if (!awards.isEmpty()) {
+            log.debug("授予勋章 {} 个", awards.size());
+        }
+    }
+
+    /**
+     * 用户进度，不在内存中时由记录按行为类型聚合、用户连续打卡状态与已获得勋章加载
+     */
+    private Progress progress(Long userId) {
+        Progress progress = progresses.get(userId);
+        if (progress != null) {
+            return progress;
+        }
+        progress = new Progress(userId);
+        for (Map<String, Object> row : footprintMapper.getBehaviorTotals(userId)) {
+            long count = ((Number) row.get("recordCount")).longValue();
+            progress.records += count;
+            progress.reductionCents += toCents(toBigDecimal(row.get("reductionAmount")));
+            progress.behaviorCounts.put((String) row.get("behaviorType"), count);
+            progress.loadedMaxId = Math.max(progress.loadedMaxId, ((Number) row.get("maxId")).longValue());
+        }
+        loadStreak(progress);
+        progress.awarded.addAll(achievementMapper.selectRuleCodes(userId));
+        progresses.put(userId, progress);
+        return progress;
+    }
+
+    private void loadStreak(Progress progress) {
+        LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(User::getCurrentStreak, User::getLastCheckinDate)
+               .eq(User::getId, progress.userId);
+        User user = userMapper.selectOne(wrapper);
+        progress.streak = user == null || user.getCurrentStreak() == null ? 0 : user.getCurrentStreak();
+        progress.lastRecordDate = user == null ? null : user.getLastCheckinDate();
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+
+    /**
+     * 用户的勋章进度
+     */
+    private static final class Progress {
+        final Long userId;
+        final Map<String, Long> behaviorCounts = new HashMap<>();
+        final Set<String> awarded = new HashSet<>();
+        long records;
+        long reductionCents;
+        int streak;
+        LocalDate lastRecordDate;
+        long loadedMaxId;
+
+        Progress(Long userId) {
+            this.userId = userId;
+        }
+    }
+
+    private static final class Rule {
+        final String code;
+        final String title;
+        final String description;
+        final String metric;
+        final String behaviorType;
+        final long threshold;
+
+        Rule(String code, String title, String description, String metric, String behaviorType, long threshold) {
+            this.code = code;
+            this.title = title;
+            this.description = description;
+            this.metric = metric;
+            this.behaviorType = behaviorType;
+            this.threshold = threshold;
+        }
+
+        Achievement toAchievement(Long userId) {
+            Achievement achievement = new Achievement();
+            achievement.setUserId(userId);
+            achievement.setType(TYPE_BADGE);
+            achievement.setRuleCode(code);
+            achievement.setTitle(title);
+            achievement.setDescription(description);
+            achievement.setPointsChange(0);
+            return achievement;
+        }
+    }
+}
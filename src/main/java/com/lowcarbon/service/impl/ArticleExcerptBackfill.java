@@ -0,0 +1,60 @@
+package com.lowcarbon.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.lowcarbon.common.Constants;
+import com.lowcarbon.entity.Article;
+import com.lowcarbon.mapper.ArticleMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 历史文章摘要回填：启动后按ID分批为摘要为空的文章生成摘要，与新建/修改文章使用同一规则（buildExcerpt）
+ */
+@Slf4j
+@Component
+public class ArticleExcerptBackfill {
+
+    // 每批条数（不超过分页插件的单页上限）
+    private static final int BATCH_SIZE = Constants.MAX_PAGE_SIZE;
+
+    @Autowired
+    private ArticleMapper articleMapper;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            int filled = 0;
+            long lastId = 0;
+            while (true) {
+                LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
+                wrapper.select(Article::getId, Article::getContent)
+                       .eq(Article::getExcerpt, "")
+                       .gt(Article::getId, lastId)
+                       .orderByAsc(Article::getId);
+                List<Article> batch = articleMapper.selectPage(new Page<>(1, BATCH_SIZE, false), wrapper).getRecords();
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (Article article : batch) {
+                    // 内容为空或只有标签（如纯图片）的文章摘要仍为空
+                    String excerpt = ArticleServiceImpl.buildExcerpt(article.getContent());
+                    if (!excerpt.isEmpty()) {
+                        filled += articleMapper.fillExcerpt(article.getId(), excerpt);
+                    }
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+            if (filled > 0) {
+                log.info("文章摘要回填完成，共 {} 篇", filled);
+            }
+        } catch (RuntimeException e) {
+            log.warn("文章摘要回填失败，下次启动时重试", e);
+        }
+    }
+}
@@ -1,15 +1,18 @@
 package com.lowcarbon.service.impl;
 
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.http.HtmlUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.lowcarbon.common.Constants;
 import com.lowcarbon.dto.ArticleCreateDTO;
 import com.lowcarbon.dto.ArticleQueryDTO;
 import com.lowcarbon.dto.ArticleUpdateDTO;
 import com.lowcarbon.dto.ArticleVO;
 import com.lowcarbon.dto.CommentVO;
+import com.lowcarbon.dto.CursorPageVO;
 import com.lowcarbon.entity.Article;
 import com.lowcarbon.entity.ArticleComment;
 import com.lowcarbon.entity.ArticleFavorite;
@@ -21,8 +24,18 @@ import com.lowcarbon.mapper.ArticleLikeMapper;
 import com.lowcarbon.mapper.ArticleMapper;
 import com.lowcarbon.mapper.UserMapper;
 import com.lowcarbon.service.ArticleService;
+import com.lowcarbon.util.CursorUtil;
 
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -46,16 +59,120 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
     @Autowired
     private ArticleCommentMapper articleCommentMapper;
 
+    @Autowired
+    private ArticleViewCounter articleViewCounter;
+
+    // 列表摘要长度（字符数）
+    private static final int EXCERPT_LENGTH = 150;
+
+    // 与 MySQL ngram_token_size 保持一致（默认 2）
+    private static final int NGRAM_TOKEN_SIZE = 2;
+
     @Override
     public IPage<ArticleVO> getArticleList(ArticleQueryDTO queryDTO) {
-        Page<Article> page = new Page<>(queryDTO.getCurrent(), queryDTO.getSize());
+        boolean searchCount = queryDTO.getSearchCount() == null || queryDTO.getSearchCount();
+        Page<Article> page = new Page<>(queryDTO.getCurrent(), queryDTO.getSize(), searchCount);
+        LambdaQueryWrapper<Article> wrapper = buildListWrapper(queryDTO);
+
+        IPage<Article> articlePage;
+        if (isFullTextKeyword(queryDTO.getKeyword())) {
+            // 关键词检索：按全文相关度排序
+            articlePage = articleMapper.searchPage(page, queryDTO.getKeyword().trim(), wrapper);
+        } else {
+            // 排序：置顶优先，然后按创建时间倒序（id 兜底保证分页稳定）
+            wrapper.orderByDesc(Article::getIsTop, Article::getCreateTime, Article::getId);
+            articlePage = articleMapper.selectPage(page, wrapper);
+        }
+
+        // 转换为VO，作者信息整页一次批量查询
+        IPage<ArticleVO> voPage = articlePage.convert(this::toArticleVO);
+        fillAuthorNames(voPage.getRecords());
+        fillHighlights(voPage.getRecords(), queryDTO.getKeyword());
+        return voPage;
+    }
+
+    @Override
+    public List<ArticleVO> getArticleListAfter(ArticleQueryDTO queryDTO, int size, Integer lastIsTop,
+                                               LocalDateTime lastCreateTime, Long lastId) {
+        LambdaQueryWrapper<Article> wrapper = buildListWrapper(queryDTO);
+
+        // 定位到上一页最后一条之后：(is_top, create_time, id) < (lastIsTop, lastCreateTime, lastId)
+        if (lastIsTop != null && lastCreateTime != null && lastId != null) {
+            wrapper.and(w -> w.lt(Article::getIsTop, lastIsTop)
+                    .or(w2 -> w2.eq(Article::getIsTop, lastIsTop)
+                            .and(w3 -> w3.lt(Article::getCreateTime, lastCreateTime)
+                                    .or(w4 -> w4.eq(Article::getCreateTime, lastCreateTime)
+                                            .lt(Article::getId, lastId)))));
+        }
+        wrapper.orderByDesc(Article::getIsTop, Article::getCreateTime, Article::getId);
+
+        // 只取一页，不做 COUNT；条数由调用方限制（游标分页多取一条，可超出插件的单页上限）
+        Page<Article> page = new Page<>(1, size, false);
+        page.setMaxLimit((long) size);
+        List<ArticleVO> records = articleMapper.selectPage(page, wrapper).getRecords().stream()
+                .map(this::toArticleVO)
+                .collect(Collectors.toList());
+        fillAuthorNames(records);
+        fillHighlights(records, queryDTO.getKeyword());
+        return records;
+    }
+
+    @Override
+    public CursorPageVO<ArticleVO> getArticleCursorPage(ArticleQueryDTO queryDTO, String cursor) {
+        Integer lastIsTop = null;
+        LocalDateTime lastCreateTime = null;
+        Long lastId = null;
+        String[] keys = CursorUtil.decode(cursor, 3);
+        if (keys != null) {
+            try {
+                lastIsTop = Integer.valueOf(keys[0]);
+                lastCreateTime = LocalDateTime.parse(keys[1]);
+                lastId = Long.valueOf(keys[2]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("游标无效");
+            }
+        }
+
+        int limit = Math.min(Math.max(queryDTO.getSize(), 1), Constants.MAX_PAGE_SIZE);
+        // 多取一条判断是否还有下一页，避免最后一页恰好取满时返回指向空页的游标
+        List<ArticleVO> records = getArticleListAfter(queryDTO, limit + 1, lastIsTop, lastCreateTime, lastId);
+        boolean hasMore = records.size() > limit;
+        if (hasMore) {
+            records = records.subList(0, limit);
+        }
+
+        CursorPageVO<ArticleVO> result = new CursorPageVO<>();
+        result.setRecords(records);
+        result.setHasMore(hasMore);
+        if (hasMore) {
+            ArticleVO last = records.get(records.size() - 1);
+            result.setNextCursor(CursorUtil.encode(last.getIsTop(), last.getCreateTime(), last.getId()));
+        }
+        return result;
+    }
+
+    /**
+     * 列表筛选条件（关键词/分类/作者），分页与游标查询共用
+     */
+    private LambdaQueryWrapper<Article> buildListWrapper(ArticleQueryDTO queryDTO) {
         LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
 
-        // 关键词搜索
+        // 列表只读摘要列，不读取 LONGTEXT 的 content
+        wrapper.select(Article::getId, Article::getTitle, Article::getCoverImg, Article::getExcerpt,
+                Article::getCategory, Article::getViews, Article::getLikesCount, Article::getCommentsCount,
+                Article::getFavoritesCount, Article::getAuthorId, Article::getIsTop,
+                Article::getCreateTime, Article::getUpdateTime);
+
+        // 关键词搜索：走 ft_title_content 全文索引；短于 ngram 分词长度的关键词无法命中全文索引，退化为标题匹配
+        // 筛选用布尔模式的短语查询：ngram 分词下要求关键词的各个分词连续出现，即包含整个关键词
+        // （自然语言模式命中任一分词即返回）；相关度排序仍用自然语言模式的得分
         if (StrUtil.isNotBlank(queryDTO.getKeyword())) {
-            wrapper.and(w -> w.like(Article::getTitle, queryDTO.getKeyword())
-                    .or()
-                    .like(Article::getContent, queryDTO.getKeyword()));
+            String keyword = queryDTO.getKeyword().trim();
+            if (isFullTextKeyword(keyword)) {
+                wrapper.apply("MATCH(title, content) AGAINST({0} IN BOOLEAN MODE)", toPhraseQuery(keyword));
+            } else {
+                wrapper.like(Article::getTitle, keyword);
+            }
         }
 
         // 分类筛选
@@ -68,56 +185,95 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
             wrapper.eq(Article::getAuthorId, queryDTO.getAuthorId());
         }
 
-        // 排序：置顶优先，然后按创建时间倒序
-        wrapper.orderByDesc(Article::getIsTop)
-               .orderByDesc(Article::getCreateTime);
+        return wrapper;
+    }
 
-        IPage<Article> articlePage = articleMapper.selectPage(page, wrapper);
+    private static boolean isFullTextKeyword(String keyword) {
+        return StrUtil.isNotBlank(keyword) && keyword.trim().length() >= NGRAM_TOKEN_SIZE;
+    }
 
-        // 转换为VO
-        IPage<ArticleVO> voPage = articlePage.convert(article -> {
-            ArticleVO vo = new ArticleVO();
-            BeanUtils.copyProperties(article, vo);
+    /**
+     * 关键词转为布尔模式的短语查询；去掉关键词中的双引号，避免提前结束短语（短语内的其他布尔运算符按普通字符处理）
+     */
+    private static String toPhraseQuery(String keyword) {
+        return "\"" + keyword.replace('"', ' ') + "\"";
+    }
 
-            // 查询作者信息
-            if (article.getAuthorId() != null) {
-                User author = userMapper.selectById(article.getAuthorId());
-                if (author != null) {
-                    vo.setAuthorName(author.getNickname());
-                }
-            }
+    /**
+     * 关键词高亮：对标题与摘要做 HTML 转义后，用 &lt;em&gt; 包裹命中的关键词
+     */
+    private void fillHighlights(List<ArticleVO> articles, String keyword) {
+        if (StrUtil.isBlank(keyword)) {
+            return;
+        }
+        Pattern pattern = Pattern.compile(Pattern.quote(HtmlUtil.escape(keyword.trim())), Pattern.CASE_INSENSITIVE);
+        for (ArticleVO vo : articles) {
+            vo.setHighlightTitle(highlight(vo.getTitle(), pattern));
+            vo.setHighlightExcerpt(highlight(vo.getExcerpt(), pattern));
+        }
+    }
 
-            return vo;
-        });
+    private static String highlight(String text, Pattern pattern) {
+        if (StrUtil.isEmpty(text)) {
+            return text;
+        }
+        return pattern.matcher(HtmlUtil.escape(text)).replaceAll(m -> "<em>" + Matcher.quoteReplacement(m.group()) + "</em>");
+    }
 
-        return voPage;
+    private ArticleVO toArticleVO(Article article) {
+        ArticleVO vo = new ArticleVO();
+        BeanUtils.copyProperties(article, vo);
+        // 浏览量 = 已落库值 + 尚未写回的增量
+        long pendingViews = articleViewCounter.getPending(article.getId());
+        vo.setViews((int) ((article.getViews() == null ? 0 : article.getViews()) + pendingViews));
+        return vo;
+    }
+
+    /**
+     * 批量填充作者昵称：对本次响应涉及的作者去重后一次 IN 查询，避免逐条 selectById 的 N+1
+     */
+    private void fillAuthorNames(List<ArticleVO> articles) {
+        Set<Long> authorIds = articles.stream()
+                .map(ArticleVO::getAuthorId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, String> authorNames = getAuthorNames(authorIds);
+        for (ArticleVO vo : articles) {
+            if (vo.getAuthorId() != null) {
+                vo.setAuthorName(authorNames.get(vo.getAuthorId()));
+            }
+        }
+    }
+
+    /**
+     * 作者ID -> 昵称，仅查询需要的两列
+     */
+    private Map<Long, String> getAuthorNames(Set<Long> authorIds) {
+        if (authorIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(User::getId, User::getNickname)
+               .in(User::getId, authorIds);
+        Map<Long, String> authorNames = new HashMap<>();
+        for (User author : userMapper.selectList(wrapper)) {
+            authorNames.put(author.getId(), author.getNickname());
+        }
+        return authorNames;
     }
 
     @Override
-    @Transactional
     public ArticleVO getArticleDetail(Long id) {
         Article article = articleMapper.selectById(id);
         if (article == null) {
             throw new RuntimeException("文章不存在");
         }
 
-        // 增加浏览量
-        articleMapper.incrementViews(id);
-
-        // 重新查询以获取最新的浏览量
-        article = articleMapper.selectById(id);
-
-        ArticleVO vo = new ArticleVO();
-        BeanUtils.copyProperties(article, vo);
-
-        // 查询作者信息
-        if (article.getAuthorId() != null) {
-            User author = userMapper.selectById(article.getAuthorId());
-            if (author != null) {
-                vo.setAuthorName(author.getNickname());
-            }
-        }
+        // 增加浏览量：内存累加，定时批量写回，读路径不加行锁
+        articleViewCounter.increment(id);
 
+        ArticleVO vo = toArticleVO(article);
+        fillAuthorNames(Collections.singletonList(vo));
         return vo;
     }
 
@@ -128,6 +284,7 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
         article.setTitle(createDTO.getTitle());
         article.setCoverImg(createDTO.getCoverImg());
         article.setContent(createDTO.getContent());
+        article.setExcerpt(buildExcerpt(createDTO.getContent()));
         article.setCategory(createDTO.getCategory());
         article.setAuthorId(authorId);
         article.setViews(0);
@@ -152,6 +309,7 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
         }
         if (StrUtil.isNotBlank(updateDTO.getContent())) {
             article.setContent(updateDTO.getContent());
+            article.setExcerpt(buildExcerpt(updateDTO.getContent()));
         }
         if (StrUtil.isNotBlank(updateDTO.getCategory())) {
             article.setCategory(updateDTO.getCategory());
@@ -163,6 +321,19 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
         articleMapper.updateById(article);
     }
 
+    /**
+     * 由富文本内容生成纯文本摘要（去标签、合并空白，截取前 EXCERPT_LENGTH 个字符）
+     */
+    static String buildExcerpt(String content) {
+        if (StrUtil.isBlank(content)) {
+            return "";
+        }
+        String text = HtmlUtil.unescape(HtmlUtil.cleanHtmlTag(content))
+                .replaceAll("\\s+", " ")
+                .trim();
+        return text.length() > EXCERPT_LENGTH ? text.substring(0, EXCERPT_LENGTH) + "..." : text;
+    }
+
     @Override
     @Transactional
     public void deleteArticle(Long id) {
@@ -187,28 +358,13 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
     @Override
     @Transactional
     public void likeArticle(Long articleId, Long userId) {
-        // 检查是否已点赞
-        LambdaQueryWrapper<ArticleLike> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(ArticleLike::getArticleId, articleId)
-               .eq(ArticleLike::getUserId, userId);
-        Long count = articleLikeMapper.selectCount(wrapper);
-        
-        if (count > 0) {
+        // 添加点赞记录（唯一键去重，重复点赞不插入）
+        if (articleLikeMapper.insertIgnore(articleId, userId) == 0) {
             throw new RuntimeException("已经点赞过了");
         }
 
-        // 添加点赞记录
-        ArticleLike like = new ArticleLike();
-        like.setArticleId(articleId);
-        like.setUserId(userId);
-        articleLikeMapper.insert(like);
-
         // 更新文章点赞数
-        Article article = articleMapper.selectById(articleId);
-        if (article != null) {
-            article.setLikesCount(article.getLikesCount() == null ? 1 : article.getLikesCount() + 1);
-            articleMapper.updateById(article);
-        }
+        articleMapper.addLikesCount(articleId, 1);
     }
 
     @Override
@@ -218,13 +374,10 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
         LambdaQueryWrapper<ArticleLike> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(ArticleLike::getArticleId, articleId)
                .eq(ArticleLike::getUserId, userId);
-        articleLikeMapper.delete(wrapper);
 
-        // 更新文章点赞数
-        Article article = articleMapper.selectById(articleId);
-        if (article != null && article.getLikesCount() != null && article.getLikesCount() > 0) {
-            article.setLikesCount(article.getLikesCount() - 1);
-            articleMapper.updateById(article);
+        // 确有删除时才扣减文章点赞数
+        if (articleLikeMapper.delete(wrapper) > 0) {
+            articleMapper.addLikesCount(articleId, -1);
         }
     }
 
@@ -239,28 +392,13 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
     @Override
     @Transactional
     public void favoriteArticle(Long articleId, Long userId) {
-        // 检查是否已收藏
-        LambdaQueryWrapper<ArticleFavorite> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(ArticleFavorite::getArticleId, articleId)
-               .eq(ArticleFavorite::getUserId, userId);
-        Long count = articleFavoriteMapper.selectCount(wrapper);
-        
-        if (count > 0) {
+        // 添加收藏记录（唯一键去重，重复收藏不插入）
+        if (articleFavoriteMapper.insertIgnore(articleId, userId) == 0) {
             throw new RuntimeException("已经收藏过了");
         }
 
-        // 添加收藏记录
-        ArticleFavorite favorite = new ArticleFavorite();
-        favorite.setArticleId(articleId);
-        favorite.setUserId(userId);
-        articleFavoriteMapper.insert(favorite);
-
         // 更新文章收藏数
-        Article article = articleMapper.selectById(articleId);
-        if (article != null) {
-            article.setFavoritesCount(article.getFavoritesCount() == null ? 1 : article.getFavoritesCount() + 1);
-            articleMapper.updateById(article);
-        }
+        articleMapper.addFavoritesCount(articleId, 1);
     }
 
     @Override
@@ -270,13 +408,10 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
         LambdaQueryWrapper<ArticleFavorite> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(ArticleFavorite::getArticleId, articleId)
                .eq(ArticleFavorite::getUserId, userId);
-        articleFavoriteMapper.delete(wrapper);
 
-        // 更新文章收藏数
-        Article article = articleMapper.selectById(articleId);
-        if (article != null && article.getFavoritesCount() != null && article.getFavoritesCount() > 0) {
-            article.setFavoritesCount(article.getFavoritesCount() - 1);
-            articleMapper.updateById(article);
+        // 确有删除时才扣减文章收藏数
+        if (articleFavoriteMapper.delete(wrapper) > 0) {
+            articleMapper.addFavoritesCount(articleId, -1);
         }
     }
 
@@ -290,26 +425,9 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
 
     @Override
     public IPage<ArticleVO> getFavoriteArticles(Long userId, Integer pageNum, Integer pageSize) {
-        // 创建分页对象
+        // 分页下推到数据库（LIMIT/OFFSET + COUNT）
         Page<ArticleVO> page = new Page<>(pageNum, pageSize);
-        
-        // 获取用户收藏的文章列表（分页）
-        List<ArticleVO> favoriteArticles = articleFavoriteMapper.selectFavoriteArticlesByUserId(userId);
-        
-        // 手动分页处理
-        int start = (pageNum - 1) * pageSize;
-        int end = Math.min(start + pageSize, favoriteArticles.size());
-        
-        List<ArticleVO> pageRecords = favoriteArticles.subList(
-            Math.min(start, favoriteArticles.size()), 
-            Math.min(end, favoriteArticles.size())
-        );
-        
-        page.setRecords(pageRecords);
-        page.setTotal(favoriteArticles.size());
-        page.setCurrent(pageNum);
-        page.setSize(pageSize);
-        
+        articleFavoriteMapper.selectFavoriteArticlesByUserId(page, userId);
         return page;
     }
 
@@ -325,11 +443,7 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
         articleCommentMapper.insert(comment);
 
         // 更新文章评论数
-        Article article = articleMapper.selectById(articleId);
-        if (article != null) {
-            article.setCommentsCount(article.getCommentsCount() == null ? 1 : article.getCommentsCount() + 1);
-            articleMapper.updateById(article);
-        }
+        articleMapper.addCommentsCount(articleId, 1);
     }
 
     @Override
@@ -350,13 +464,9 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
             throw new RuntimeException("无权删除此评论");
         }
 
-        articleCommentMapper.deleteById(commentId);
-
-        // 更新文章评论数
-        Article article = articleMapper.selectById(comment.getArticleId());
-        if (article != null && article.getCommentsCount() != null && article.getCommentsCount() > 0) {
-            article.setCommentsCount(article.getCommentsCount() - 1);
-            articleMapper.updateById(article);
+        // 确有删除时才扣减文章评论数
+        if (articleCommentMapper.deleteById(commentId) > 0) {
+            articleMapper.addCommentsCount(comment.getArticleId(), -1);
         }
     }
 }
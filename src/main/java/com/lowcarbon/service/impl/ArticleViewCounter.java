@@ -0,0 +1,79 @@
+package com.lowcarbon.service.impl;
+
+import com.lowcarbon.mapper.ArticleMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 文章浏览量写回缓冲：详情页只在内存中累加，定时批量写回 tb_article，读路径不再产生行锁
+ */
+@Slf4j
+@Component
+public class ArticleViewCounter {
+
+    // 每条批量 UPDATE 最多包含的文章数
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    @Autowired
+    private ArticleMapper articleMapper;
+
+    // 文章ID -> 待写回的浏览增量；条目数以文章总数为上限，不做回收以避免与并发累加竞争
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    public void increment(Long articleId) {
+        LongAdder adder = pending.get(articleId);
+        if (adder == null) {
+            adder = pending.computeIfAbsent(articleId, k -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    /**
+     * 尚未写回数据库的浏览增量
+     */
+    public long getPending(Long articleId) {
+        LongAdder adder = pending.get(articleId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    @Scheduled(fixedDelayString = "${article.views.flush-interval:5000}")
+    public void flush() {
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta > 0) {
+                deltas.put(entry.getKey(), delta);
+                if (deltas.size() >= FLUSH_BATCH_SIZE) {
+                    write(deltas);
+                    deltas = new HashMap<>();
+                }
+            }
+        }
+        if (!deltas.isEmpty()) {
+            write(deltas);
+        }
+    }
+
+    private void write(Map<Long, Long> deltas) {
+        try {
+            articleMapper.addViewsBatch(deltas);
+        } catch (Exception e) {
+            // 写回失败时把增量还回缓冲区，下个周期重试
+            deltas.forEach((id, delta) -> pending.computeIfAbsent(id, k -> new LongAdder()).add(delta));
+            log.error("文章浏览量写回失败，{} 篇文章的增量将在下次重试", deltas.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,216 @@
+package com.lowcarbon.service.impl;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lowcarbon.common.Result;
+import com.lowcarbon.entity.BehaviorFactor;
+import com.lowcarbon.mapper.BehaviorFactorMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 行为排放系数注册表：启动时加载 tb_behavior_factor 最新版本为不可变快照，定期检测新版本并整体替换，无需重启
+ * 新版本须包含当前版本的全部行为类型才切换（行为类型只隐藏不删除），避免加载到尚未写完的版本
+ */
+@Slf4j
+@Component
+public class BehaviorFactorRegistry {
+
+    // 系数表为空或不可用时使用的内置系数，对应版本 1
+    private static final int DEFAULT_VERSION = 1;
+
+    @Autowired
+    private BehaviorFactorMapper behaviorFactorMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void init() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("加载排放系数失败，使用内置系数", e);
+            snapshot = buildSnapshot(DEFAULT_VERSION, defaultFactors());
+        }
+    }
+
+    /**
+     * 当前快照；同一次计算应只取一次，保证系数与版本号一致
+     */
+    public Snapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * 定期检查系数表版本，有新版本、或当前版本的行数与已加载的不一致（加载时尚未写完）时重新加载
+     */
+    @Scheduled(fixedDelayString = "${footprint.factor.reload-interval:60000}")
+    public void refresh() {
+        try {
+            Integer latest = behaviorFactorMapper.getLatestVersion();
+            if (latest == null) {
+                return;
+            }
+            Snapshot current = snapshot;
+            if (latest != current.getVersion() || behaviorFactorMapper.countByVersion(latest) != current.factors.size()) {
+                reload();
+            }
+        } catch (RuntimeException e) {
+            log.warn("检查排放系数版本失败", e);
+        }
+    }
+
+    /**
+     * 加载最新版本并替换快照；最新版本缺少当前版本（启动时为内置系数）的行为类型时视为未写完，保留当前快照
+     */
+    public synchronized void reload() {
+        Integer latest = behaviorFactorMapper.getLatestVersion();
+        if (latest == null) {
+            snapshot = buildSnapshot(DEFAULT_VERSION, defaultFactors());
+            return;
+        }
+        List<BehaviorFactor> factors = behaviorFactorMapper.selectByVersion(latest);
+        Snapshot current = snapshot != null ? snapshot : buildSnapshot(DEFAULT_VERSION, defaultFactors());
+        Set<String> missing = new LinkedHashSet<>(current.factors.keySet());
+        factors.forEach(factor -> missing.remove(factor.getBehaviorType()));
+        if (!missing.isEmpty()) {
+            log.warn("排放系数版本 {} 不完整（缺少 {}），继续使用版本 {}", latest, missing, current.getVersion());
+            snapshot = current;
+            return;
+        }
+        snapshot = buildSnapshot(latest, factors);
+        log.info("排放系数已加载：版本 {}，共 {} 种行为", latest, factors.size());
+    }
+
+    private Snapshot buildSnapshot(int version, List<BehaviorFactor> factors) {
+        Map<String, BehaviorFactor> byType = new LinkedHashMap<>();
+        Map<String, CarbonCalculator.Coefficient> coefficients = new HashMap<>();
+        Map<String, Map<String, Object>> behaviorTypes = new LinkedHashMap<>();
+        for (BehaviorFactor factor : factors) {
+            byType.put(factor.getBehaviorType(), factor);
+            coefficients.put(factor.getBehaviorType(), CarbonCalculator.Coefficient.of(factor.getCoefficient()));
+            if (Boolean.FALSE.equals(factor.getVisible())) {
+                continue;
+            }
+            Map<String, Object> behavior = new LinkedHashMap<>();
+            behavior.put("name", factor.getBehaviorName());
+            behavior.put("unit", factor.getUnit());
+            behavior.put("description", factor.getDescription());
+            behavior.put("coefficient", factor.getCoefficient());
+            behaviorTypes.put(factor.getBehaviorType(), behavior);
+        }
+
+        // 行为类型列表与响应体只在加载时序列化一次，ETag 取响应体摘要
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(Result.success(behaviorTypes));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("行为类型序列化失败", e);
+        }
+        String etag = "\"" + version + "-" + DigestUtil.md5Hex(json) + "\"";
+        return new Snapshot(version, Collections.unmodifiableMap(byType), Collections.unmodifiableMap(coefficients), json, etag);
+    }
+
+    private static List<BehaviorFactor> defaultFactors() {
+        List<BehaviorFactor> factors = new ArrayList<>();
+        // 交通出行（kg CO2/km）
+        addDefault(factors, "BUS", "公交出行", "km", "搭乘公交车出行", "0.089", true);
+        addDefault(factors, "SUBWAY", "地铁出行", "km", "搭乘地铁出行", "0.055", true);
+        addDefault(factors, "BIKE", "骑行", "km", "骑自行车出行", "0", true);
+        addDefault(factors, "WALK", "步行", "km", "步行出行", "0", true);
+        addDefault(factors, "CAR", "私家车", "km", "驾驶私家车出行", "0.271", false);
+        addDefault(factors, "ELECTRIC_CAR", "电动车出行", "km", "驾驶电动车出行", "0.15", true);
+        // 节能（kg CO2/度、kg CO2/吨）
+        addDefault(factors, "SAVE_ELEC", "节约用电", "度", "节约用电量", "0.785", true);
+        addDefault(factors, "SAVE_WATER", "节约用水", "吨", "节约用水量", "0.194", true);
+        // 饮食（kg CO2/次）
+        addDefault(factors, "VEGETARIAN", "素食", "次", "选择素食餐", "0.5", true);
+        addDefault(factors, "REDUCE_WASTE", "减少浪费", "次", "减少食物浪费", "0.3", true);
+        // 其他
+        addDefault(factors, "RECYCLE", "垃圾分类", "次", "垃圾分类回收", "0.2", true);
+        addDefault(factors, "REUSE_BAG", "环保袋", "次", "使用环保购物袋", "0.1", true);
+        return factors;
+    }
+
+    private static void addDefault(List<BehaviorFactor> factors, String type, String name, String unit,
+                                   String description, String coefficient, boolean visible) {
+        BehaviorFactor factor = new BehaviorFactor();
+        factor.setVersion(DEFAULT_VERSION);
+        factor.setBehaviorType(type);
+        factor.setBehaviorName(name);
+        factor.setUnit(unit);
+        factor.setDescription(description);
+        factor.setCoefficient(new BigDecimal(coefficient));
+        factor.setSortOrder(factors.size() + 1);
+        factor.setVisible(visible);
+        factors.add(factor);
+    }
+
+    /**
+     * 某一版本系数的不可变快照（含预序列化的行为类型响应）
+     */
+    public static final class Snapshot {
+        private final int version;
+        private final Map<String, BehaviorFactor> factors;
+        private final Map<String, CarbonCalculator.Coefficient> coefficients;
+        private final byte[] behaviorTypesJson;
+        private final String etag;
+
+        private Snapshot(int version, Map<String, BehaviorFactor> factors, Map<String, CarbonCalculator.Coefficient> coefficients,
+                         byte[] behaviorTypesJson, String etag) {
+            this.version = version;
+            this.factors = factors;
+            this.coefficients = coefficients;
+            this.behaviorTypesJson = behaviorTypesJson;
+            this.etag = etag;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        /**
+         * 行为系数，未知类型返回 null（返回对象只读，不要修改）
+         */
+        public BehaviorFactor get(String behaviorType) {
+            return behaviorType == null ? null : factors.get(behaviorType);
+        }
+
+        /**
+         * 行为系数的定点表示（供 CarbonCalculator 计算），未知类型返回 null
+         */
+        public CarbonCalculator.Coefficient coefficient(String behaviorType) {
+            return behaviorType == null ? null : coefficients.get(behaviorType);
+        }
+
+        public byte[] getBehaviorTypesJson() {
+            return behaviorTypesJson;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public boolean matches(String ifNoneMatch) {
+            return Objects.equals(etag, ifNoneMatch);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.lowcarbon.service.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 碳减排量与积分的定点计算：在 long 上完成 数据值 × 系数 并按 HALF_UP 保留 2 位小数，
+ * 结果与 dataValue.multiply(coefficient).setScale(2, HALF_UP) 逐位一致；超出 long 范围时退回 BigDecimal 计算
+ */
+public final class CarbonCalculator {
+
+    // 积分计算规则：每减排1kg CO2 = 10积分
+    public static final int POINTS_PER_KG = 10;
+
+    // 减排量保留的小数位数
+    public static final int REDUCTION_SCALE = 2;
+
+    private static final int MAX_LONG_PRECISION = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_LONG_PRECISION + 1];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private CarbonCalculator() {
+    }
+
+    /**
+     * 碳减排量，单位 0.01 kg（即按 2 位小数缩放后的整数）
+     */
+    public static long reductionCents(BigDecimal dataValue, Coefficient coefficient) {
+        if (!coefficient.fixedPoint || dataValue.precision() > MAX_LONG_PRECISION) {
+            return slowReductionCents(dataValue, coefficient.value);
+        }
+        long value = dataValue.scale() == 0 ? dataValue.longValue() : dataValue.unscaledValue().longValue();
+        int scale = dataValue.scale() + coefficient.scale;
+
+        // 乘积溢出 long 时退回 BigDecimal
+        long product = value * coefficient.unscaled;
+        if (Math.multiplyHigh(value, coefficient.unscaled) != (product >> 63)) {
+            return slowReductionCents(dataValue, coefficient.value);
+        }
+
+        if (scale <= REDUCTION_SCALE) {
+            int shift = REDUCTION_SCALE - scale;
+            if (shift > MAX_LONG_PRECISION) {
+                return slowReductionCents(dataValue, coefficient.value);
+            }
+            long cents = product * POWERS_OF_TEN[shift];
+            if (Math.multiplyHigh(product, POWERS_OF_TEN[shift]) != (cents >> 63)) {
+                return slowReductionCents(dataValue, coefficient.value);
+            }
+            return cents;
+        }
+        if (scale - REDUCTION_SCALE > MAX_LONG_PRECISION) {
+            return slowReductionCents(dataValue, coefficient.value);
+        }
+
+        // HALF_UP：舍去部分的绝对值 ≥ 除数的一半时向远离 0 的方向进位
+        long divisor = POWERS_OF_TEN[scale - REDUCTION_SCALE];
+        long quotient = product / divisor;
+        long remainder = Math.abs(product % divisor);
+        if (remainder >= divisor - remainder) {
+            quotient += product < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * 减排量对应的积分，与 reduction.multiply(POINTS_PER_KG).intValue() 一致（向 0 截断）
+     */
+    public static int points(long reductionCents) {
+        // 拆成整数部分与小数部分分别换算，避免 cents × 10 溢出
+        return (int) (reductionCents / 100 * POINTS_PER_KG + reductionCents % 100 * POINTS_PER_KG / 100);
+    }
+
+    public static BigDecimal toReduction(long reductionCents) {
+        return BigDecimal.valueOf(reductionCents, REDUCTION_SCALE);
+    }
+
+    private static long slowReductionCents(BigDecimal dataValue, BigDecimal coefficient) {
+        try {
+            return dataValue.multiply(coefficient)
+                    .setScale(REDUCTION_SCALE, RoundingMode.HALF_UP)
+                    .unscaledValue()
+                    .longValueExact();
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("数据值过大");
+        }
+    }
+
+    /**
+     * 系数及其预计算的定点表示（未缩放值 + 小数位数），加载系数时构建一次，计算时不再拆分 BigDecimal；不可变，可在线程间共享
+     */
+    public static final class Coefficient {
+        private final BigDecimal value;
+        private final long unscaled;
+        private final int scale;
+        // 精度超出 long 时只能走 BigDecimal
+        private final boolean fixedPoint;
+
+        private Coefficient(BigDecimal value, long unscaled, int scale, boolean fixedPoint) {
+            this.value = value;
+            this.unscaled = unscaled;
+            this.scale = scale;
+            this.fixedPoint = fixedPoint;
+        }
+
+        public static Coefficient of(BigDecimal value) {
+            if (value.precision() > MAX_LONG_PRECISION) {
+                return new Coefficient(value, 0, 0, false);
+            }
+            return new Coefficient(value, value.unscaledValue().longValue(), value.scale(), true);
+        }
+
+        public BigDecimal getValue() {
+            return value;
+        }
+    }
+}
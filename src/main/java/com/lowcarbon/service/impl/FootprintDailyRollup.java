@@ -0,0 +1,131 @@
+package com.lowcarbon.service.impl;
+
+import com.lowcarbon.entity.Footprint;
+import com.lowcarbon.mapper.FootprintDailyMapper;
+import com.lowcarbon.mapper.FootprintEventMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 碳足迹日汇总维护：处理记录增删改事件时按差值更新 tb_footprint_daily，并定期由明细重建以纠正偏差
+ */
+@Slf4j
+@Component
+public class FootprintDailyRollup {
+
+    @Autowired
+    private FootprintDailyMapper footprintDailyMapper;
+
+    @Autowired
+    private FootprintEventMapper footprintEventMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 新增记录计入汇总
+     */
+    public void add(Footprint footprint) {
+        if (footprint.getRecordDate() == null) {
+            return;
+        }
+        footprintDailyMapper.upsertDelta(footprint.getUserId(), footprint.getRecordDate(),
+                footprint.getBehaviorType(), footprint.getBehaviorName(),
+                1, footprint.getReductionAmount(), footprint.getPointsEarned());
+    }
+
+    /**
+     * 批量导入的记录计入汇总：先按 日期+行为 合并，每组只执行一次 upsert
+     */
+    public void addAll(List<Footprint> footprints) {
+        Map<String, DailyDelta> deltas = new LinkedHashMap<>();
+        for (Footprint footprint : footprints) {
+            if (footprint.getRecordDate() == null) {
+                continue;
+            }
+            String key = footprint.getUserId() + "|" + footprint.getRecordDate() + "|" + footprint.getBehaviorType();
+            DailyDelta delta = deltas.computeIfAbsent(key, k -> new DailyDelta(footprint));
+            delta.count++;
+            delta.reduction = delta.reduction.add(footprint.getReductionAmount());
+            delta.points += footprint.getPointsEarned();
+        }
+        for (DailyDelta delta : deltas.values()) {
+            footprintDailyMapper.upsertDelta(delta.sample.getUserId(), delta.sample.getRecordDate(),
+                    delta.sample.getBehaviorType(), delta.sample.getBehaviorName(),
+                    delta.count, delta.reduction, delta.points);
+        }
+    }
+
+    /**
+     * 删除（或修改前的）记录从汇总中扣除
+     */
+    public void remove(Footprint footprint) {
+        if (footprint.getRecordDate() == null) {
+            return;
+        }
+        footprintDailyMapper.upsertDelta(footprint.getUserId(), footprint.getRecordDate(),
+                footprint.getBehaviorType(), null,
+                -1, footprint.getReductionAmount().negate(), -footprint.getPointsEarned());
+        footprintDailyMapper.deleteEmpty(footprint.getUserId(), footprint.getRecordDate(), footprint.getBehaviorType());
+    }
+
+    private static class DailyDelta {
+        private final Footprint sample;
+        private int count;
+        private BigDecimal reduction = BigDecimal.ZERO;
+        private int points;
+
+        private DailyDelta(Footprint sample) {
+            this.sample = sample;
+        }
+    }
+
+    /**
+     * 由明细重建单个用户的汇总，返回是否已重建。
+     * 用户有未生效的事件（待处理或处理失败）时跳过：明细已包含而汇总尚未计入，重建后事件再处理会重复计入。
+     * 加锁顺序与事件处理相同（先事件行、后汇总行）；明细用一致性读聚合后由应用写入，不锁明细行，
+     * 避免与“先写明细、后写事件”的请求事务交叉加锁
+     */
+    public boolean rebuild(Long userId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!footprintEventMapper.lockUnappliedIds(userId).isEmpty()) {
+                return false;
+            }
+            List<Map<String, Object>> rows = footprintDailyMapper.aggregateByUserId(userId);
+            footprintDailyMapper.deleteByUserId(userId);
+            if (!rows.isEmpty()) {
+                footprintDailyMapper.insertRows(userId, rows);
+            }
+            return true;
+        }));
+    }
+
+    /**
+     * 定期全量重建（逐用户、各自独立事务）
+     */
+    @Scheduled(cron = "${footprint.rollup.rebuild-cron:0 30 3 * * ?}")
+    public void rebuildAll() {
+        List<Long> userIds = footprintDailyMapper.selectUserIds();
+        int failed = 0;
+        int skipped = 0;
+        for (Long userId : userIds) {
+            try {
+                if (!rebuild(userId)) {
+                    skipped++;
+                }
+            } catch (Exception e) {
+                failed++;
+                log.error("碳足迹日汇总重建失败，userId={}", userId, e);
+            }
+        }
+        log.info("碳足迹日汇总重建完成，用户数={}，失败数={}，有未生效事件跳过数={}", userIds.size(), failed, skipped);
+    }
+}
@@ -0,0 +1,176 @@
+package com.lowcarbon.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lowcarbon.entity.Footprint;
+import com.lowcarbon.entity.FootprintEvent;
+import com.lowcarbon.event.FootprintAmendedEvent;
+import com.lowcarbon.event.FootprintDeletedEvent;
+import com.lowcarbon.event.FootprintRecordedEvent;
+import com.lowcarbon.mapper.FootprintEventMapper;
+import com.lowcarbon.mapper.FootprintMapper;
+import com.lowcarbon.mapper.UserMapper;
+import com.lowcarbon.service.LeaderboardService;
+import com.lowcarbon.service.PointsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 碳足迹事件的处理：一批事件在一个事务中更新日汇总、用户累计（积分记流水）与连续打卡并删除事件，
+ * 提交后更新排行榜并发布应用内事件（时间窗口排行、勋章）
+ */
+@Component
+public class FootprintEventHandler {
+
+    @Autowired
+    private FootprintEventMapper footprintEventMapper;
+
+    @Autowired
+    private FootprintMapper footprintMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private FootprintDailyRollup footprintDailyRollup;
+
+    @Autowired
+    private PointsService pointsService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 按顺序处理一批事件（同一用户的事件合并为一次累计更新与一次连续打卡更新）；已处理过的事件跳过
+     */
+    @Transactional
+    public void handle(List<FootprintEvent> batch) {
+        List<Long> ids = footprintEventMapper.lockPending(batch.stream().map(FootprintEvent::getId).toList());
+        if (ids.isEmpty()) {
+            return;
+        }
+        Set<Long> pending = new HashSet<>(ids);
+        List<FootprintEvent> events = batch.stream().filter(event -> pending.contains(event.getId())).toList();
+
+        List<Object> payloads = new ArrayList<>(events.size());
+        List<Footprint> added = new ArrayList<>();
+        List<Footprint> removed = new ArrayList<>();
+        Map<Long, UserDelta> deltas = new LinkedHashMap<>();
+
+        for (FootprintEvent event : events) {
+            Object payload = deserialize(event);
+            payloads.add(payload);
+            UserDelta delta = deltas.computeIfAbsent(event.getUserId(), k -> new UserDelta());
+            delta.events++;
+            delta.lastEventId = event.getId();
+            if (payload instanceof FootprintRecordedEvent recorded) {
+                for (Footprint footprint : recorded.getFootprints()) {
+                    added.add(footprint);
+                    delta.add(footprint, 1);
+                }
+                if (recorded.getFootprints().size() == 1) {
+                    delta.advanceDate = recorded.getFootprints().get(0).getRecordDate();
+                } else {
+                    delta.refreshStreak = true;
+                }
+            } else if (payload instanceof FootprintAmendedEvent amended) {
+                added.add(amended.getAfter());
+                removed.add(amended.getBefore());
+                delta.add(amended.getAfter(), 1);
+                delta.add(amended.getBefore(), -1);
+                // 记录日期变化会影响连续打卡区间
+                if (!Objects.equals(amended.getBefore().getRecordDate(), amended.getAfter().getRecordDate())) {
+                    delta.refreshStreak = true;
+                }
+            } else if (payload instanceof FootprintDeletedEvent deleted) {
+                removed.add(deleted.getFootprint());
+                delta.add(deleted.getFootprint(), -1);
+                // 删除可能使连续打卡区间断开
+                delta.refreshStreak = true;
+            }
+        }
+
+        // 先累加再扣除：同一批内先新增后删除的记录，扣除后的空汇总行才会被删掉
+        footprintDailyRollup.addAll(added);
+        for (Footprint footprint : removed) {
+            footprintDailyRollup.remove(footprint);
+        }
+
+        deltas.forEach((userId, delta) -> {
+            if (delta.reduction.signum() != 0 || delta.points != 0) {
+                if (delta.reduction.signum() != 0) {
+                    userMapper.addReduction(userId, delta.reduction);
+                }
+                // 积分记流水，流水的业务ID为该用户本批最后一个事件
+                int points = pointsService.changePoints(userId, delta.points,
+                        PointsServiceImpl.BIZ_FOOTPRINT, String.valueOf(delta.lastEventId));
+                leaderboardService.applyDelta(userId, delta.reduction, points);
+            }
+            // 单条新增推进连续打卡；补录历史日期可能连接起原本断开的区间，需重算
+            if (delta.refreshStreak || delta.events > 1 || delta.advanceDate == null) {
+                refreshStreak(userId);
+            } else if (userMapper.advanceStreak(userId, delta.advanceDate) == 0) {
+                refreshStreak(userId);
+            }
+        });
+
+        footprintEventMapper.deleteBatchIds(ids);
+
+        // 监听方（时间窗口排行、勋章）在事务提交后处理
+        payloads.forEach(eventPublisher::publishEvent);
+    }
+
+    /**
+     * 按记录重算用户的连续打卡状态（最近日期 + 截至该日期的连续天数），一次 MAX 查询 + 一次区间查询
+     */
+    private void refreshStreak(Long userId) {
+        LocalDate lastRecordDate = footprintMapper.getLastRecordDate(userId);
+        int streak = lastRecordDate == null ? 0 : footprintMapper.getStreakEndingAt(userId, lastRecordDate);
+        userMapper.setStreak(userId, streak, lastRecordDate);
+    }
+
+    private Object deserialize(FootprintEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), FootprintEventOutbox.payloadClass(event.getEventType()));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("碳足迹事件解析失败，id=" + event.getId(), e);
+        }
+    }
+
+    /**
+     * 一批事件中单个用户的累计变化
+     */
+    private static class UserDelta {
+        private BigDecimal reduction = BigDecimal.ZERO;
+        private int points;
+        private int events;
+        private Long lastEventId;
+        private LocalDate advanceDate;
+        private boolean refreshStreak;
+
+        private void add(Footprint footprint, int sign) {
+            BigDecimal amount = footprint.getReductionAmount() == null ? BigDecimal.ZERO : footprint.getReductionAmount();
+            int earned = footprint.getPointsEarned() == null ? 0 : footprint.getPointsEarned();
+            reduction = sign > 0 ? reduction.add(amount) : reduction.subtract(amount);
+            points += sign * earned;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.lowcarbon.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lowcarbon.entity.FootprintEvent;
+import com.lowcarbon.event.FootprintAmendedEvent;
+import com.lowcarbon.event.FootprintDeletedEvent;
+import com.lowcarbon.event.FootprintRecordedEvent;
+import com.lowcarbon.mapper.FootprintEventMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 碳足迹事件发件箱：业务事务中只写入一条事件，提交后唤醒分发线程；
+ * 分发线程按写入顺序读取待处理事件，按用户分配给固定数量的处理线程（同一用户的事件顺序处理），
+ * 处理线程按批调用 FootprintEventHandler，失败时逐条重试，超过次数的事件标记为失败不再阻塞后续事件
+ * 仅支持单实例部署（内存排行榜同样如此）
+ */
+@Slf4j
+@Component
+public class FootprintEventOutbox {
+
+    public static final String TYPE_RECORDED = "FootprintRecorded";
+    public static final String TYPE_AMENDED = "FootprintAmended";
+    public static final String TYPE_DELETED = "FootprintDeleted";
+
+    private static final Map<String, Class<?>> PAYLOAD_CLASSES = Map.of(
+            TYPE_RECORDED, FootprintRecordedEvent.class,
+            TYPE_AMENDED, FootprintAmendedEvent.class,
+            TYPE_DELETED, FootprintDeletedEvent.class);
+
+    private static final int STATUS_FAILED = 2;
+
+    // 单条事件最多尝试次数，重试间隔按次数翻倍
+    private static final int MAX_ATTEMPTS = 5;
+
+    // 每个处理线程的队列长度，队列满时分发线程等待
+    private static final int QUEUE_CAPACITY = 1000;
+
+    @Autowired
+    private FootprintEventMapper footprintEventMapper;
+
+    @Autowired
+    private FootprintEventHandler footprintEventHandler;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${footprint.events.workers:4}")
+    private int workerCount;
+
+    @Value("${footprint.events.batch-size:200}")
+    private int batchSize;
+
+    @Value("${footprint.events.poll-interval:1000}")
+    private long pollInterval;
+
+    @Value("${footprint.events.retry-backoff:500}")
+    private long retryBackoff;
+
+    private final Semaphore wakeup = new Semaphore(0);
+
+    // 已分发、尚未处理完的事件
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private List<BlockingQueue<FootprintEvent>> queues;
+    private Thread dispatcher;
+    private List<Thread> workers;
+    private volatile boolean running;
+
+    /**
+     * 应用启动完成后再开始处理：此时事件监听方已注册、时间窗口排行已完成恢复或重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        // 停止时未处理完的事件仍在表中，重新启动后重新分发
+        inFlight.clear();
+        queues = new ArrayList<>(workerCount);
+        workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            BlockingQueue<FootprintEvent> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+            queues.add(queue);
+            Thread worker = new Thread(() -> work(queue), "footprint-event-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+        dispatcher = new Thread(this::dispatch, "footprint-event-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * 停止分发；处理线程完成当前批次后退出，未处理的事件保留在表中，重启后继续处理
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (dispatcher == null) {
+            return;
+        }
+        running = false;
+        dispatcher.interrupt();
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * 在当前事务中写入事件（须在业务事务内调用），事务提交后唤醒分发线程
+     */
+    public void append(Long userId, Object event) {
+        FootprintEvent record = new FootprintEvent();
+        record.setEventType(typeOf(event));
+        record.setUserId(userId);
+        try {
+            record.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("碳足迹事件序列化失败", e);
+        }
+        footprintEventMapper.insert(record);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeup.release();
+                }
+            });
+        } else {
+            wakeup.release();
+        }
+    }
+
+    /**
+     * 处理失败的事件重新排队（排查并修复原因后调用），唤醒分发线程，返回重新排队的事件数
+     */
+    public int requeueFailed() {
+        int requeued = footprintEventMapper.requeueFailed();
+        if (requeued > 0) {
+            log.info("处理失败的碳足迹事件已重新排队，共 {} 条", requeued);
+            wakeup.release();
+        }
+        return requeued;
+    }
+
+    static Class<?> payloadClass(String eventType) {
+        Class<?> type = PAYLOAD_CLASSES.get(eventType);
+        if (type == null) {
+            throw new RuntimeException("未知的碳足迹事件类型：" + eventType);
+        }
+        return type;
+    }
+
+    private static String typeOf(Object event) {
+        if (event instanceof FootprintRecordedEvent) {
+            return TYPE_RECORDED;
+        }
+        if (event instanceof FootprintAmendedEvent) {
+            return TYPE_AMENDED;
+        }
+        if (event instanceof FootprintDeletedEvent) {
+            return TYPE_DELETED;
+        }
+        throw new IllegalArgumentException("未知的碳足迹事件：" + event.getClass().getName());
+    }
+
+    /**
+     * 分发线程：被唤醒或每隔 pollInterval 读取一次待处理事件（重启后、其他事务提交顺序与 ID 顺序不一致时也能读到）
+     */
+    private void dispatch() {
+        while (running) {
+            try {
+                wakeup.tryAcquire(pollInterval, TimeUnit.MILLISECONDS);
+                wakeup.drainPermits();
+                dispatchPending();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("读取碳足迹事件失败", e);
+            }
+        }
+    }
+
+    private void dispatchPending() throws InterruptedException {
+        while (running) {
+            // 已分发的事件仍在表中，多取这部分以保证每轮至少有 batchSize * workerCount 条新事件
+            int limit = inFlight.size() + batchSize * workerCount;
+            List<FootprintEvent> events = footprintEventMapper.selectPending(limit);
+            for (FootprintEvent event : events) {
+                if (inFlight.add(event.getId())) {
+                    queues.get(Math.floorMod(event.getUserId(), workerCount)).put(event);
+                }
+            }
+            if (events.size() < limit) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 处理线程：取一批事件在一个事务中处理
+     */
+    private void work(BlockingQueue<FootprintEvent> queue) {
+        List<FootprintEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                FootprintEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.forEach(event -> inFlight.remove(event.getId()));
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 先整批处理，失败后逐条重试
+     */
+    void process(List<FootprintEvent> batch) throws InterruptedException {
+        try {
+            footprintEventHandler.handle(batch);
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                log.warn("碳足迹事件处理失败，id={}", batch.get(0).getId(), e);
+            } else {
+                log.warn("碳足迹事件批量处理失败，改为逐条处理，共 {} 条", batch.size(), e);
+            }
+        }
+        // 逐条按顺序重试，找出出错的事件
+        for (FootprintEvent event : batch) {
+            retry(event);
+        }
+    }
+
+    private void retry(FootprintEvent event) throws InterruptedException {
+        int attempts = event.getAttempts() == null ? 0 : event.getAttempts();
+        while (true) {
+            try {
+                footprintEventHandler.handle(List.of(event));
+                return;
+            } catch (RuntimeException e) {
+                attempts++;
+                boolean giveUp = attempts >= MAX_ATTEMPTS;
+                try {
+                    footprintEventMapper.recordFailure(event.getId(), abbreviate(e.toString()), giveUp ? STATUS_FAILED : 0);
+                } catch (RuntimeException ignored) {
+                    // 数据库不可用时不记录失败次数，稍后重试
+                }
+                if (giveUp) {
+                    log.error("碳足迹事件处理失败 {} 次，已标记为失败，id={}", attempts, event.getId(), e);
+                    return;
+                }
+                Thread.sleep(retryBackoff << Math.min(attempts, 6));
+            }
+        }
+    }
+
+    private static String abbreviate(String message) {
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
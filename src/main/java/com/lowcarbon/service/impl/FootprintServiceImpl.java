@@ -1,23 +1,45 @@
 package com.lowcarbon.service.impl;
 
+import cn.hutool.core.text.csv.CsvWriter;
+import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.toolkit.Db;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lowcarbon.common.Constants;
+import com.lowcarbon.dto.CursorPageVO;
 import com.lowcarbon.dto.FootprintCreateDTO;
+import com.lowcarbon.dto.FootprintImportVO;
 import com.lowcarbon.dto.FootprintVO;
+import com.lowcarbon.entity.BehaviorFactor;
 import com.lowcarbon.entity.Footprint;
 import com.lowcarbon.entity.User;
+import com.lowcarbon.event.FootprintAmendedEvent;
+import com.lowcarbon.event.FootprintDeletedEvent;
+import com.lowcarbon.event.FootprintRecordedEvent;
 import com.lowcarbon.mapper.FootprintMapper;
 import com.lowcarbon.mapper.UserMapper;
 import com.lowcarbon.service.FootprintService;
+import com.lowcarbon.util.CursorUtil;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -31,170 +53,283 @@ public class FootprintServiceImpl implements FootprintService {
     @Autowired
     private UserMapper userMapper;
     
-    // 碳排放系数配置（kg CO2/单位）
-    private static final Map<String, BigDecimal> BEHAVIOR_COEFFICIENTS = new HashMap<>();
-    static {
-        // 交通出行（kg CO2/km）
-        BEHAVIOR_COEFFICIENTS.put("BUS", new BigDecimal("0.089"));           // 公交车
-        BEHAVIOR_COEFFICIENTS.put("SUBWAY", new BigDecimal("0.055"));        // 地铁
-        BEHAVIOR_COEFFICIENTS.put("BIKE", new BigDecimal("0"));              // 骑行
-        BEHAVIOR_COEFFICIENTS.put("WALK", new BigDecimal("0"));              // 步行
-        BEHAVIOR_COEFFICIENTS.put("CAR", new BigDecimal("0.271"));           // 私家车
-        BEHAVIOR_COEFFICIENTS.put("ELECTRIC_CAR", new BigDecimal("0.15"));   // 电动车
-        
-        // 用电节约（kg CO2/度）
-        BEHAVIOR_COEFFICIENTS.put("SAVE_ELEC", new BigDecimal("0.785"));     // 节约用电
-        
-        // 用水节约（kg CO2/吨）
-        BEHAVIOR_COEFFICIENTS.put("SAVE_WATER", new BigDecimal("0.194"));    // 节约用水
-        
-        // 饮食（kg CO2/次）
-        BEHAVIOR_COEFFICIENTS.put("VEGETARIAN", new BigDecimal("0.5"));      // 素食
-        BEHAVIOR_COEFFICIENTS.put("REDUCE_WASTE", new BigDecimal("0.3"));    // 减少食物浪费
-        
-        // 其他
-        BEHAVIOR_COEFFICIENTS.put("RECYCLE", new BigDecimal("0.2"));         // 垃圾分类回收
-        BEHAVIOR_COEFFICIENTS.put("REUSE_BAG", new BigDecimal("0.1"));       // 使用环保袋
-    }
+    @Autowired
+    private ObjectMapper objectMapper;
     
-    // 单位配置（与行为类型对应）
-    private static final Map<String, String> UNIT_BY_TYPE = new HashMap<>();
-    static {
-        UNIT_BY_TYPE.put("BUS", "km");
-        UNIT_BY_TYPE.put("SUBWAY", "km");
-        UNIT_BY_TYPE.put("BIKE", "km");
-        UNIT_BY_TYPE.put("WALK", "km");
-        UNIT_BY_TYPE.put("CAR", "km");
-        UNIT_BY_TYPE.put("ELECTRIC_CAR", "km");
-        UNIT_BY_TYPE.put("SAVE_ELEC", "度");
-        UNIT_BY_TYPE.put("SAVE_WATER", "吨");
-        UNIT_BY_TYPE.put("VEGETARIAN", "次");
-        UNIT_BY_TYPE.put("REDUCE_WASTE", "次");
-        UNIT_BY_TYPE.put("RECYCLE", "次");
-        UNIT_BY_TYPE.put("REUSE_BAG", "次");
-    }
+    @Autowired
+    private BehaviorFactorRegistry behaviorFactorRegistry;
+    
+    @Autowired
+    private FootprintEventOutbox footprintEventOutbox;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    // 非“次”单位的最小数据值
+    private static final BigDecimal MIN_DATA_VALUE = new BigDecimal("0.01");
+    
+    // 批量导入：每批插入条数与单次请求最大条数
+    private static final int IMPORT_BATCH_SIZE = 1000;
+    private static final int MAX_IMPORT_ROWS = 100000;
     
-    // 积分计算规则：每减排1kg CO2 = 10积分
-    private static final int POINTS_PER_KG = 10;
+    // 导出格式与 CSV 表头（表头兼容批量导入，可直接回导）
+    public static final String EXPORT_FORMAT_CSV = "csv";
+    public static final String EXPORT_FORMAT_NDJSON = "ndjson";
+    private static final String[] EXPORT_CSV_HEADER = {"id", "behaviorType", "behaviorName", "dataValue", "coefficient",
+            "factorVersion", "reductionAmount", "pointsEarned", "recordDate", "remark", "createTime"};
     
     private boolean isIntegerValue(BigDecimal v) {
         return v != null && v.scale() <= 0;
     }
     
-    @Override
-    @Transactional
-    public FootprintVO createFootprint(FootprintCreateDTO createDTO, Long userId) {
-        Footprint footprint = new Footprint();
-        BeanUtils.copyProperties(createDTO, footprint);
-        footprint.setUserId(userId);
-        
-        // 行为类型与单位校验
-        String type = createDTO.getBehaviorType();
-        if (!BEHAVIOR_COEFFICIENTS.containsKey(type)) {
+    /**
+     * 行为类型与单位校验，返回该行为在当前版本下的系数配置
+     */
+    private BehaviorFactor validate(BehaviorFactorRegistry.Snapshot factors, String type, BigDecimal value) {
+        BehaviorFactor factor = factors.get(type);
+        if (factor == null) {
             throw new RuntimeException("行为类型非法");
         }
-        String unit = UNIT_BY_TYPE.get(type);
-        BigDecimal value = createDTO.getDataValue();
+        String unit = factor.getUnit();
         if ("次".equals(unit)) {
             if (value == null || value.compareTo(BigDecimal.ONE) < 0 || !isIntegerValue(value)) {
                 throw new RuntimeException("数据值不合法：‘次’必须为≥1的整数");
             }
         } else {
-            if (value == null || value.compareTo(new BigDecimal("0.01")) < 0) {
+            if (value == null || value.compareTo(MIN_DATA_VALUE) < 0) {
                 throw new RuntimeException("数据值不合法：必须≥0.01");
             }
         }
+        return factor;
+    }
+    
+    /**
+     * 校验并计算系数、碳减排量（保留2位小数）与积分，生成待保存的记录
+     */
+    private Footprint buildFootprint(BehaviorFactorRegistry.Snapshot factors, FootprintCreateDTO createDTO, Long userId) {
+        BehaviorFactor factor = validate(factors, createDTO.getBehaviorType(), createDTO.getDataValue());
         
-        // 获取碳排放系数
-        BigDecimal coefficient = BEHAVIOR_COEFFICIENTS.get(type);
-        footprint.setCoefficient(coefficient);
+        Footprint footprint = new Footprint();
+        BeanUtils.copyProperties(createDTO, footprint);
+        footprint.setUserId(userId);
         
-        // 计算碳减排量（保留2位小数）
-        BigDecimal reductionAmount = createDTO.getDataValue()
-                .multiply(coefficient)
-                .setScale(2, RoundingMode.HALF_UP);
-        footprint.setReductionAmount(reductionAmount);
+        // 获取碳排放系数，并记录所用系数版本
+        footprint.setCoefficient(factor.getCoefficient());
+        footprint.setFactorVersion(factors.getVersion());
         
-        // 计算获得的积分
-        int pointsEarned = reductionAmount.multiply(new BigDecimal(POINTS_PER_KG)).intValue();
-        footprint.setPointsEarned(pointsEarned);
+        // 计算碳减排量（保留2位小数）与获得的积分，定点计算
+        long reductionCents = CarbonCalculator.reductionCents(createDTO.getDataValue(), factors.coefficient(factor.getBehaviorType()));
+        footprint.setReductionAmount(CarbonCalculator.toReduction(reductionCents));
+        footprint.setPointsEarned(CarbonCalculator.points(reductionCents));
+        return footprint;
+    }
+    
+    @Override
+    @Transactional
+    public FootprintVO createFootprint(FootprintCreateDTO createDTO, Long userId) {
+        Footprint footprint = buildFootprint(behaviorFactorRegistry.current(), createDTO, userId);
         
-        // 保存记录
+        // 保存记录；日汇总、用户累计、连续打卡、排行榜与勋章由事件异步更新
         footprintMapper.insert(footprint);
+        footprintEventOutbox.append(userId, new FootprintRecordedEvent(userId, List.of(footprint)));
         
-        // 更新用户的总减排量和积分
-        User user = userMapper.selectById(userId);
-        if (user != null) {
-            user.setTotalReduction(user.getTotalReduction().add(reductionAmount));
-            user.setPoints(user.getPoints() + pointsEarned);
-            userMapper.updateById(user);
+        // 返回创建的记录（转换为VO）
+        return toFootprintVO(footprint);
+    }
+    
+    @Override
+    public FootprintImportVO importFootprints(Iterator<FootprintCreateDTO> rows, Long userId) {
+        // 先在事务外读完并校验全部数据（CSV 边上传边解析，上传慢时不占用连接与锁），再在一个事务中整批写入
+        // 整批使用同一版本的系数
+        BehaviorFactorRegistry.Snapshot factors = behaviorFactorRegistry.current();
+        List<Footprint> footprints = new ArrayList<>();
+        int imported = 0;
+        BigDecimal totalReduction = BigDecimal.ZERO;
+        int totalPoints = 0;
+        
+        while (rows.hasNext()) {
+            int rowNum = imported + 1;
+            if (rowNum > MAX_IMPORT_ROWS) {
+                throw new RuntimeException("单次导入不能超过" + MAX_IMPORT_ROWS + "条");
+            }
+            Footprint footprint;
+            try {
+                FootprintCreateDTO dto = rows.next();
+                if (dto.getRecordDate() == null) {
+                    throw new RuntimeException("记录日期不能为空");
+                }
+                footprint = buildFootprint(factors, dto, userId);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("第" + rowNum + "条数据不合法：" + e.getMessage());
+            }
+            if (StrUtil.isBlank(footprint.getBehaviorName())) {
+                footprint.setBehaviorName(footprint.getBehaviorType());
+            }
+            
+            footprints.add(footprint);
+            imported++;
+            totalReduction = totalReduction.add(footprint.getReductionAmount());
+            totalPoints += footprint.getPointsEarned();
         }
         
-        // 返回创建的记录（转换为VO）
-        FootprintVO vo = new FootprintVO();
-        BeanUtils.copyProperties(footprint, vo);
-        return vo;
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < footprints.size(); from += IMPORT_BATCH_SIZE) {
+                saveImportBatch(footprints.subList(from, Math.min(from + IMPORT_BATCH_SIZE, footprints.size())), userId);
+            }
+        });
+        
+        FootprintImportVO result = new FootprintImportVO();
+        result.setImported(imported);
+        result.setTotalReduction(totalReduction);
+        result.setTotalPoints(totalPoints);
+        return result;
+    }
+    
+    /**
+     * JDBC 批量插入一批记录（配合连接参数 rewriteBatchedStatements 改写为多值 INSERT），每批写入一条事件
+     */
+    private void saveImportBatch(List<Footprint> batch, Long userId) {
+        Db.saveBatch(batch, IMPORT_BATCH_SIZE);
+        footprintEventOutbox.append(userId, new FootprintRecordedEvent(userId, batch));
     }
     
     @Override
     public IPage<FootprintVO> getFootprintList(Long userId, Integer pageNum, Integer pageSize, 
-                                                LocalDate startDate, LocalDate endDate) {
-        Page<Footprint> page = new Page<>(pageNum, pageSize);
-        LambdaQueryWrapper<Footprint> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(Footprint::getUserId, userId);
+                                                LocalDate startDate, LocalDate endDate, boolean searchCount) {
+        Page<Footprint> page = new Page<>(pageNum, pageSize, searchCount);
+        LambdaQueryWrapper<Footprint> wrapper = buildListWrapper(userId, startDate, endDate);
         
-        if (startDate != null) {
-            wrapper.ge(Footprint::getRecordDate, startDate);
-        }
-        if (endDate != null) {
-            wrapper.le(Footprint::getRecordDate, endDate);
-        }
-        
-        wrapper.orderByDesc(Footprint::getRecordDate, Footprint::getCreateTime);
+        wrapper.orderByDesc(Footprint::getRecordDate, Footprint::getCreateTime, Footprint::getId);
         
         IPage<Footprint> footprintPage = footprintMapper.selectPage(page, wrapper);
         
         // 转换为VO
-        IPage<FootprintVO> voPage = new Page<>(footprintPage.getCurrent(), footprintPage.getSize(), footprintPage.getTotal());
-        List<FootprintVO> voList = footprintPage.getRecords().stream().map(footprint -> {
-            FootprintVO vo = new FootprintVO();
-            BeanUtils.copyProperties(footprint, vo);
-            return vo;
-        }).collect(Collectors.toList());
-        voPage.setRecords(voList);
-        
-        return voPage;
+        return footprintPage.convert(this::toFootprintVO);
     }
     
     @Override
-    public Map<String, Object> getStatistics(Long userId, LocalDate startDate, LocalDate endDate) {
-        Map<String, Object> stats = footprintMapper.getStatistics(userId, startDate, endDate);
-        if (stats == null) {
-            stats = new HashMap<>();
-            stats.put("totalReduction", BigDecimal.ZERO);
-            stats.put("totalPoints", 0);
+    public List<FootprintVO> getFootprintListAfter(Long userId, Integer size, LocalDate startDate, LocalDate endDate,
+                                                   LocalDate lastRecordDate, LocalDateTime lastCreateTime, Long lastId) {
+        LambdaQueryWrapper<Footprint> wrapper = buildListWrapper(userId, startDate, endDate);
+        
+        // 定位到上一页最后一条之后：(record_date, create_time, id) < (lastRecordDate, lastCreateTime, lastId)
+        if (lastRecordDate != null && lastCreateTime != null && lastId != null) {
+            wrapper.and(w -> w.lt(Footprint::getRecordDate, lastRecordDate)
+                    .or(w2 -> w2.eq(Footprint::getRecordDate, lastRecordDate)
+                            .and(w3 -> w3.lt(Footprint::getCreateTime, lastCreateTime)
+                                    .or(w4 -> w4.eq(Footprint::getCreateTime, lastCreateTime)
+                                            .lt(Footprint::getId, lastId)))));
         }
-        
-        // 处理null值
-        if (stats.get("totalReduction") == null) {
-            stats.put("totalReduction", BigDecimal.ZERO);
+        wrapper.orderByDesc(Footprint::getRecordDate, Footprint::getCreateTime, Footprint::getId);
+        
+        // 只取一页，不做 COUNT；条数由调用方限制（游标分页多取一条，可超出插件的单页上限）
+        Page<Footprint> page = new Page<>(1, size, false);
+        page.setMaxLimit((long) size);
+        return footprintMapper.selectPage(page, wrapper).getRecords().stream()
+                .map(this::toFootprintVO)
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public CursorPageVO<FootprintVO> getFootprintCursorPage(Long userId, Integer size, LocalDate startDate,
+                                                            LocalDate endDate, String cursor) {
+        LocalDate lastRecordDate = null;
+        LocalDateTime lastCreateTime = null;
+        Long lastId = null;
+        String[] keys = CursorUtil.decode(cursor, 3);
+        if (keys != null) {
+            try {
+                lastRecordDate = LocalDate.parse(keys[0]);
+                lastCreateTime = LocalDateTime.parse(keys[1]);
+                lastId = Long.valueOf(keys[2]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("游标无效");
+            }
         }
-        if (stats.get("totalPoints") == null) {
-            stats.put("totalPoints", 0);
+        
+        int limit = Math.min(Math.max(size, 1), Constants.MAX_PAGE_SIZE);
+        // 多取一条判断是否还有下一页，避免最后一页恰好取满时返回指向空页的游标
+        List<FootprintVO> records = getFootprintListAfter(userId, limit + 1, startDate, endDate,
+                lastRecordDate, lastCreateTime, lastId);
+        boolean hasMore = records.size() > limit;
+        if (hasMore) {
+            records = records.subList(0, limit);
         }
         
-        // 获取记录总数
+        CursorPageVO<FootprintVO> result = new CursorPageVO<>();
+        result.setRecords(records);
+        result.setHasMore(hasMore);
+        if (hasMore) {
+            FootprintVO last = records.get(records.size() - 1);
+            result.setNextCursor(CursorUtil.encode(last.getRecordDate(), last.getCreateTime(), last.getId()));
+        }
+        return result;
+    }
+    
+    @Override
+    public void exportFootprints(Long userId, LocalDate startDate, LocalDate endDate, String format,
+                                 OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            if (EXPORT_FORMAT_NDJSON.equalsIgnoreCase(format)) {
+                footprintMapper.streamByUser(userId, startDate, endDate, context -> {
+                    try {
+                        writer.write(objectMapper.writeValueAsString(toFootprintVO(context.getResultObject())));
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } else {
+                CsvWriter csvWriter = new CsvWriter(writer);
+                csvWriter.writeLine(EXPORT_CSV_HEADER);
+                footprintMapper.streamByUser(userId, startDate, endDate, context -> {
+                    Footprint f = context.getResultObject();
+                    csvWriter.writeLine(StrUtil.toStringOrNull(f.getId()), f.getBehaviorType(), f.getBehaviorName(),
+                            StrUtil.toStringOrNull(f.getDataValue()), StrUtil.toStringOrNull(f.getCoefficient()),
+                            StrUtil.toStringOrNull(f.getFactorVersion()), StrUtil.toStringOrNull(f.getReductionAmount()), StrUtil.toStringOrNull(f.getPointsEarned()),
+                            StrUtil.toStringOrNull(f.getRecordDate()), f.getRemark(),
+                            StrUtil.toStringOrNull(f.getCreateTime()));
+                });
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+    
+    /**
+     * 列表筛选条件（用户 + 可选日期范围），分页与游标查询共用
+     */
+    private LambdaQueryWrapper<Footprint> buildListWrapper(Long userId, LocalDate startDate, LocalDate endDate) {
         LambdaQueryWrapper<Footprint> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(Footprint::getUserId, userId);
+        
         if (startDate != null) {
             wrapper.ge(Footprint::getRecordDate, startDate);
         }
         if (endDate != null) {
             wrapper.le(Footprint::getRecordDate, endDate);
         }
-        Long totalRecords = footprintMapper.selectCount(wrapper);
-        stats.put("totalRecords", totalRecords);
-        
+        return wrapper;
+    }
+    
+    private FootprintVO toFootprintVO(Footprint footprint) {
+        FootprintVO vo = new FootprintVO();
+        BeanUtils.copyProperties(footprint, vo);
+        return vo;
+    }
+    
+    @Override
+    public Map<String, Object> getStatistics(Long userId, LocalDate startDate, LocalDate endDate) {
+        // 总减排、总积分与记录数由同一条聚合查询返回
+        Map<String, Object> stats = footprintMapper.getStatistics(userId, startDate, endDate);
+        if (stats == null) {
+            stats = new HashMap<>();
+            stats.put("totalReduction", BigDecimal.ZERO);
+            stats.put("totalPoints", 0);
+            stats.put("totalRecords", 0L);
+        }
         return stats;
     }
     
@@ -212,11 +347,11 @@ public class FootprintServiceImpl implements FootprintService {
     @Transactional
     public FootprintVO checkin(String behaviorType, Long userId, String remark) {
         // 仅允许单位为“次”的行为进行一键打卡
-        String unit = UNIT_BY_TYPE.get(behaviorType);
-        if (unit == null) {
+        BehaviorFactor factor = behaviorFactorRegistry.current().get(behaviorType);
+        if (factor == null) {
             throw new RuntimeException("行为类型非法");
         }
-        if (!"次".equals(unit)) {
+        if (!"次".equals(factor.getUnit())) {
             throw new RuntimeException("该行为不支持一键打卡");
         }
         
@@ -228,9 +363,7 @@ public class FootprintServiceImpl implements FootprintService {
         }
         
         // 默认名称取自行为配置
-        Map<String, Map<String, Object>> behaviorTypes = getBehaviorTypes();
-        Map<String, Object> cfg = behaviorTypes.get(behaviorType);
-        String behaviorName = cfg != null ? String.valueOf(cfg.get("name")) : behaviorType;
+        String behaviorName = StrUtil.blankToDefault(factor.getBehaviorName(), behaviorType);
         
         // 组装 DTO
         FootprintCreateDTO dto = new FootprintCreateDTO();
@@ -253,16 +386,19 @@ public class FootprintServiceImpl implements FootprintService {
     public Map<String, Object> getCheckinStats(Long userId) {
         Map<String, Object> res = new HashMap<>();
         
-        // 1) 计算 streak（从今天开始向前连续有打卡的天数）
+        // 1) 计算 streak（从今天开始向前连续有打卡的天数），直接读取用户表中增量维护的连续打卡状态
+        LocalDate today = LocalDate.now();
+        LambdaQueryWrapper<User> userWrapper = new LambdaQueryWrapper<>();
+        userWrapper.select(User::getCurrentStreak, User::getLastCheckinDate)
+                   .eq(User::getId, userId);
+        User user = userMapper.selectOne(userWrapper);
         int streak = 0;
-        LocalDate cursor = LocalDate.now();
-        while (true) {
-            int cnt = footprintMapper.existsAnyOnDate(userId, cursor);
-            if (cnt > 0) {
-                streak++;
-                cursor = cursor.minusDays(1);
-            } else {
-                break;
+        if (user != null && user.getLastCheckinDate() != null) {
+            if (today.equals(user.getLastCheckinDate())) {
+                streak = user.getCurrentStreak() == null ? 0 : user.getCurrentStreak();
+            } else if (user.getLastCheckinDate().isAfter(today)) {
+                // 存在未来日期的记录时，持久化状态不以今天为终点，改为单条区间查询
+                streak = footprintMapper.getStreakEndingAt(userId, today);
             }
         }
         res.put("streak", streak);
@@ -286,64 +422,40 @@ public class FootprintServiceImpl implements FootprintService {
     @Override
     @Transactional
     public FootprintVO updateFootprint(Long id, FootprintCreateDTO updateDTO, Long userId) {
-        Footprint existing = footprintMapper.selectById(id);
+        // 加锁读：并发修改同一条记录时，后到的请求读到先到的结果，差值不会重复扣减
+        Footprint existing = footprintMapper.selectByIdForUpdate(id);
         if (existing == null || !existing.getUserId().equals(userId)) {
             throw new RuntimeException("记录不存在或无权修改");
         }
         
         // 行为类型与单位校验
+        BehaviorFactorRegistry.Snapshot factors = behaviorFactorRegistry.current();
         String type = updateDTO.getBehaviorType();
-        if (!BEHAVIOR_COEFFICIENTS.containsKey(type)) {
-            throw new RuntimeException("行为类型非法");
-        }
-        String unit = UNIT_BY_TYPE.get(type);
         BigDecimal value = updateDTO.getDataValue();
-        if ("次".equals(unit)) {
-            if (value == null || value.compareTo(BigDecimal.ONE) < 0 || !isIntegerValue(value)) {
-                throw new RuntimeException("数据值不合法：‘次’必须为≥1的整数");
-            }
-        } else {
-            if (value == null || value.compareTo(new BigDecimal("0.01")) < 0) {
-                throw new RuntimeException("数据值不合法：必须≥0.01");
-            }
-        }
+        BehaviorFactor factor = validate(factors, type, value);
         
-        // 计算新系数与减排/积分
-        BigDecimal coefficient = BEHAVIOR_COEFFICIENTS.get(type);
-        BigDecimal newReduction = value
-                .multiply(coefficient)
-                .setScale(2, RoundingMode.HALF_UP);
-        int newPoints = newReduction.multiply(new BigDecimal(POINTS_PER_KG)).intValue();
+        // 按当前版本计算新系数与减排/积分
+        BigDecimal coefficient = factor.getCoefficient();
+        long reductionCents = CarbonCalculator.reductionCents(value, factors.coefficient(type));
+        BigDecimal newReduction = CarbonCalculator.toReduction(reductionCents);
+        int newPoints = CarbonCalculator.points(reductionCents);
         
-        // 修正用户累计（按差值）
-        User user = userMapper.selectById(userId);
-        if (user != null) {
-            BigDecimal deltaReduction = newReduction.subtract(existing.getReductionAmount());
-            int deltaPoints = newPoints - existing.getPointsEarned();
-            
-            user.setTotalReduction(user.getTotalReduction().add(deltaReduction));
-            user.setPoints(user.getPoints() + deltaPoints);
-            
-            // 不为负数保护
-            if (user.getTotalReduction().compareTo(BigDecimal.ZERO) < 0) {
-                user.setTotalReduction(BigDecimal.ZERO);
-            }
-            if (user.getPoints() < 0) {
-                user.setPoints(0);
-            }
-            userMapper.updateById(user);
-        }
+        // 保留修改前的副本，用户累计与日汇总由事件按差值修正
+        Footprint before = new Footprint();
+        BeanUtils.copyProperties(existing, before);
         
         // 更新记录字段
         existing.setBehaviorType(updateDTO.getBehaviorType());
         existing.setBehaviorName(updateDTO.getBehaviorName());
         existing.setDataValue(updateDTO.getDataValue());
-        existing.setRecordDate(updateDTO.getRecordDate());
         existing.setRemark(updateDTO.getRemark());
         existing.setCoefficient(coefficient);
+        existing.setFactorVersion(factors.getVersion());
         existing.setReductionAmount(newReduction);
         existing.setPointsEarned(newPoints);
+        existing.setRecordDate(updateDTO.getRecordDate());
         footprintMapper.updateById(existing);
+        footprintEventOutbox.append(userId, new FootprintAmendedEvent(userId, before, existing));
         
         FootprintVO vo = new FootprintVO();
         BeanUtils.copyProperties(existing, vo);
@@ -353,65 +465,15 @@ public class FootprintServiceImpl implements FootprintService {
     @Override
     @Transactional
     public void deleteFootprint(Long id, Long userId) {
-        Footprint footprint = footprintMapper.selectById(id);
+        // 加锁读：与并发的修改、删除排队，事件中的记录内容即被删除的内容
+        Footprint footprint = footprintMapper.selectByIdForUpdate(id);
         if (footprint == null || !footprint.getUserId().equals(userId)) {
             throw new RuntimeException("记录不存在或无权删除");
         }
         
-        // 删除记录
         footprintMapper.deleteById(id);
         
-        // 更新用户的总减排量和积分
-        User user = userMapper.selectById(userId);
-        if (user != null) {
-            user.setTotalReduction(user.getTotalReduction().subtract(footprint.getReductionAmount()));
-            user.setPoints(user.getPoints() - footprint.getPointsEarned());
-            // 确保不为负数
-            if (user.getTotalReduction().compareTo(BigDecimal.ZERO) < 0) {
-                user.setTotalReduction(BigDecimal.ZERO);
-            }
-            if (user.getPoints() < 0) {
-                user.setPoints(0);
-            }
-            userMapper.updateById(user);
-        }
-    }
-    
-    /**
-     * 获取所有行为类型配置（供前端使用）
-     */
-    public static Map<String, Map<String, Object>> getBehaviorTypes() {
-        Map<String, Map<String, Object>> behaviors = new HashMap<>();
-        
-        // 交通出行
-        addBehavior(behaviors, "BUS", "公交出行", "km", "搭乘公交车出行");
-        addBehavior(behaviors, "SUBWAY", "地铁出行", "km", "搭乘地铁出行");
-        addBehavior(behaviors, "BIKE", "骑行", "km", "骑自行车出行");
-        addBehavior(behaviors, "WALK", "步行", "km", "步行出行");
-        addBehavior(behaviors, "ELECTRIC_CAR", "电动车出行", "km", "驾驶电动车出行");
-        
-        // 节能
-        addBehavior(behaviors, "SAVE_ELEC", "节约用电", "度", "节约用电量");
-        addBehavior(behaviors, "SAVE_WATER", "节约用水", "吨", "节约用水量");
-        
-        // 饮食
-        addBehavior(behaviors, "VEGETARIAN", "素食", "次", "选择素食餐");
-        addBehavior(behaviors, "REDUCE_WASTE", "减少浪费", "次", "减少食物浪费");
-        
-        // 其他
-        addBehavior(behaviors, "RECYCLE", "垃圾分类", "次", "垃圾分类回收");
-        addBehavior(behaviors, "REUSE_BAG", "环保袋", "次", "使用环保购物袋");
-        
-        return behaviors;
-    }
-    
-    private static void addBehavior(Map<String, Map<String, Object>> behaviors, 
-                                    String type, String name, String unit, String description) {
-        Map<String, Object> behavior = new HashMap<>();
-        behavior.put("name", name);
-        behavior.put("unit", unit);
-        behavior.put("description", description);
-        behavior.put("coefficient", BEHAVIOR_COEFFICIENTS.get(type));
-        behaviors.put(type, behavior);
+        // 扣减用户累计、日汇总与重算连续打卡由事件完成
+        footprintEventOutbox.append(userId, new FootprintDeletedEvent(userId, footprint));
     }
 }
@@ -0,0 +1,257 @@
+package com.lowcarbon.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.lowcarbon.common.Constants;
+import com.lowcarbon.dto.LeaderboardEntryVO;
+import com.lowcarbon.dto.WindowLeaderboardVO;
+import com.lowcarbon.entity.User;
+import com.lowcarbon.mapper.UserMapper;
+import com.lowcarbon.service.LeaderboardService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 全站排行榜：累计减排量与积分各一棵内存顺序统计树，随用户累计的变化增量更新，并定期以 tb_user 为准重建
+ */
+@Slf4j
+@Service
+public class LeaderboardServiceImpl implements LeaderboardService {
+
+    public static final String METRIC_REDUCTION = "reduction";
+    public static final String METRIC_POINTS = "points";
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private WindowedLeaderboard windowedLeaderboard;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 减排量以 0.01 kg 为单位存储
+    private RankingTree reductionTree = new RankingTree();
+    private RankingTree pointsTree = new RankingTree();
+
+    // 重建期间发生变化的用户，重建完成后按数据库最新值修正
+    private Set<Long> changedDuringRebuild;
+
+    @Override
+    public void applyDelta(Long userId, BigDecimal deltaReduction, int deltaPoints) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 事务回滚时不更新排行
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doApplyDelta(userId, deltaReduction, deltaPoints);
+                }
+            });
+        } else {
+            doApplyDelta(userId, deltaReduction, deltaPoints);
+        }
+    }
+
+    private void doApplyDelta(Long userId, BigDecimal deltaReduction, int deltaPoints) {
+        long deltaCents = toCents(deltaReduction);
+        lock.writeLock().lock();
+        try {
+            // 与 tb_user 的更新一致：结果不小于 0
+            reductionTree.put(userId, Math.max(reductionTree.getScore(userId) + deltaCents, 0));
+            pointsTree.put(userId, Math.max(pointsTree.getScore(userId) + deltaPoints, 0));
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(userId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<LeaderboardEntryVO> getTop(String metric, int size) {
+        int limit = Math.min(Math.max(size, 1), Constants.MAX_PAGE_SIZE);
+        List<LeaderboardEntryVO> entries = new ArrayList<>(limit);
+        lock.readLock().lock();
+        try {
+            for (RankingTree.Entry entry : tree(metric).top(limit)) {
+                entries.add(toEntry(entry.userId, entry.rank));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        fillProfiles(entries);
+        return entries;
+    }
+
+    @Override
+    public LeaderboardEntryVO getMyRank(String metric, Long userId) {
+        lock.readLock().lock();
+        try {
+            return toEntry(userId, tree(metric).rankOf(userId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public WindowLeaderboardVO getWindowTop(String period, String metric, int size) {
+        int limit = Math.min(Math.max(size, 1), Constants.MAX_PAGE_SIZE);
+        String p = period == null ? WindowedLeaderboard.PERIOD_WEEK : period;
+        LocalDate[] range = windowedLeaderboard.range(p);
+        List<LeaderboardEntryVO> entries = new ArrayList<>(limit);
+        for (WindowedLeaderboard.WindowEntry entry : windowedLeaderboard.top(p, metric, limit)) {
+            entries.add(toWindowEntry(entry));
+        }
+        fillProfiles(entries);
+
+        WindowLeaderboardVO vo = new WindowLeaderboardVO();
+        vo.setPeriod(p);
+        vo.setStartDate(range[0]);
+        vo.setEndDate(range[1]);
+        vo.setRecords(entries);
+        return vo;
+    }
+
+    @Override
+    public LeaderboardEntryVO getWindowRank(String period, String metric, Long userId) {
+        return toWindowEntry(windowedLeaderboard.rankOf(period, metric, userId));
+    }
+
+    /**
+     * 定期以数据库为准重建（启动后立即执行一次）；读库期间不持锁，增量更新照常进行
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${leaderboard.reconcile-interval:600000}")
+    public void reconcile() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        RankingTree newReductionTree = new RankingTree();
+        RankingTree newPointsTree = new RankingTree();
+        Set<Long> changed;
+        try {
+            LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(User::getId, User::getPoints, User::getTotalReduction)
+                   .eq(User::getStatus, Constants.STATUS_NORMAL)
+                   .and(w -> w.gt(User::getPoints, 0).or().gt(User::getTotalReduction, 0));
+            List<User> users = userMapper.selectList(wrapper);
+            for (User user : users) {
+                newReductionTree.put(user.getId(), toCents(user.getTotalReduction()));
+                newPointsTree.put(user.getId(), user.getPoints() == null ? 0 : user.getPoints());
+            }
+        } catch (RuntimeException e) {
+            log.warn("排行榜重建失败", e);
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            reductionTree = newReductionTree;
+            pointsTree = newPointsTree;
+            changed = changedDuringRebuild;
+            changedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // 重建期间有变化的用户，其增量可能未包含在读到的数据中，按最新值修正
+        if (!changed.isEmpty()) {
+            LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(User::getId, User::getPoints, User::getTotalReduction, User::getStatus)
+                   .in(User::getId, changed);
+            List<User> users = userMapper.selectList(wrapper);
+            lock.writeLock().lock();
+            try {
+                for (User user : users) {
+                    boolean normal = Constants.STATUS_NORMAL.equals(user.getStatus());
+                    reductionTree.put(user.getId(), normal ? toCents(user.getTotalReduction()) : 0);
+                    pointsTree.put(user.getId(), normal && user.getPoints() != null ? user.getPoints() : 0);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("排行榜已重建：上榜用户 {} 人", newReductionTree.size());
+    }
+
+    private RankingTree tree(String metric) {
+        if (metric == null || METRIC_REDUCTION.equals(metric)) {
+            return reductionTree;
+        }
+        if (METRIC_POINTS.equals(metric)) {
+            return pointsTree;
+        }
+        throw new RuntimeException("排行类型仅支持 reduction 或 points");
+    }
+
+    /**
+     * 调用方需持有读锁
+     */
+    private LeaderboardEntryVO toEntry(long userId, int rank) {
+        LeaderboardEntryVO vo = new LeaderboardEntryVO();
+        vo.setRank(rank);
+        vo.setUserId(userId);
+        vo.setPoints((int) pointsTree.getScore(userId));
+        vo.setTotalReduction(BigDecimal.valueOf(reductionTree.getScore(userId), 2));
+        return vo;
+    }
+
+    private LeaderboardEntryVO toWindowEntry(WindowedLeaderboard.WindowEntry entry) {
+        LeaderboardEntryVO vo = new LeaderboardEntryVO();
+        vo.setRank(entry.getRank());
+        vo.setUserId(entry.getUserId());
+        vo.setTotalReduction(entry.getReduction());
+        vo.setCheckinDays(entry.getCheckinDays());
+        return vo;
+    }
+
+    /**
+     * 一次 IN 查询补齐昵称与头像
+     */
+    private void fillProfiles(List<LeaderboardEntryVO> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<Long> userIds = entries.stream().map(LeaderboardEntryVO::getUserId).collect(Collectors.toList());
+        LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(User::getId, User::getNickname, User::getAvatar)
+               .in(User::getId, userIds);
+        Map<Long, User> users = userMapper.selectList(wrapper).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        for (LeaderboardEntryVO entry : entries) {
+            User user = users.get(entry.getUserId());
+            if (user != null) {
+                entry.setNickname(user.getNickname());
+                entry.setAvatar(user.getAvatar());
+            }
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+}
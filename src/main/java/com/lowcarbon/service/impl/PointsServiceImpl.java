@@ -0,0 +1,383 @@
+package com.lowcarbon.service.impl;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.lowcarbon.common.Constants;
+import com.lowcarbon.dto.CursorPageVO;
+import com.lowcarbon.dto.RedemptionVO;
+import com.lowcarbon.entity.Achievement;
+import com.lowcarbon.entity.PointsLedger;
+import com.lowcarbon.entity.RewardItem;
+import com.lowcarbon.entity.User;
+import com.lowcarbon.mapper.AchievementMapper;
+import com.lowcarbon.mapper.PointsLedgerMapper;
+import com.lowcarbon.mapper.RewardItemMapper;
+import com.lowcarbon.mapper.UserMapper;
+import com.lowcarbon.service.LeaderboardService;
+import com.lowcarbon.service.PointsService;
+import com.lowcarbon.util.CursorUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 积分流水与兑换：积分的每次变动按版本号比较并更新余额，同时追加一条以新版本号为序号的流水
+ * 兑换热点商品时先在内存中领取库存令牌（库存领完后的请求不再访问数据库），再限制同一商品同时执行的兑换事务数，
+ * 数据库中按条件扣减库存保证不超卖
+ */
+@Service
+public class PointsServiceImpl implements PointsService {
+
+    public static final String BIZ_FOOTPRINT = "FOOTPRINT";
+    public static final String BIZ_REDEEM = "REDEEM";
+
+    private static final int TYPE_REDEMPTION = 2;
+    private static final int ITEM_ON_SALE = 1;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
+    // 余额被同一用户的其他请求修改时整笔重试的次数
+    private static final int MAX_CAS_ATTEMPTS = 5;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private PointsLedgerMapper pointsLedgerMapper;
+
+    @Autowired
+    private RewardItemMapper rewardItemMapper;
+
+    @Autowired
+    private AchievementMapper achievementMapper;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${points.redeem.concurrency:8}")
+    private int redeemConcurrency;
+
+    @Value("${points.redeem.wait-timeout:3000}")
+    private long redeemWaitTimeout;
+
+    private final Map<Long, StockGate> gates = new ConcurrentHashMap<>();
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int changePoints(Long userId, int delta, String bizType, String bizId) {
+        if (delta == 0) {
+            return 0;
+        }
+        // 后台事件处理与兑换可能同时修改同一用户，加锁读保证下面的比较并更新一次成功
+        User balance = userMapper.selectBalanceForUpdate(userId);
+        if (balance == null) {
+            return 0;
+        }
+        int before = balance.getPoints() == null ? 0 : balance.getPoints();
+        int after = Math.max(before + delta, 0);
+        if (after == before) {
+            return 0;
+        }
+        long version = balance.getPointsVersion() == null ? 0 : balance.getPointsVersion();
+        if (userMapper.compareAndSetPoints(userId, version, after) == 0) {
+            throw new RuntimeException("积分更新冲突");
+        }
+        appendLedger(userId, version + 1, after - before, after, bizType, bizId);
+        return after - before;
+    }
+
+    @Override
+    public RedemptionVO redeem(Long userId, Long itemId, String idempotencyKey) {
+        // 未提供幂等键时视为一次性请求
+        String key = StrUtil.isBlank(idempotencyKey) ? IdUtil.fastSimpleUUID() : idempotencyKey.trim();
+        if (key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new RuntimeException("幂等键长度不能超过" + MAX_IDEMPOTENCY_KEY_LENGTH);
+        }
+        // 已完成的重试直接返回，不占用库存
+        Achievement existing = achievementMapper.selectByIdempotencyKey(userId, key);
+        if (existing != null) {
+            return toDuplicateVO(existing, userId);
+        }
+
+        StockGate gate = gate(itemId);
+        if (!gate.tryAcquire()) {
+            throw new RuntimeException("商品已兑完");
+        }
+        boolean returnPermit = true;
+        try {
+            // 同一商品只允许少量事务同时执行，其余请求在内存中等待，不在数据库行锁上排队
+            if (!gate.lanes.tryAcquire(redeemWaitTimeout, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("兑换人数较多，请稍后重试");
+            }
+            try {
+                RedemptionVO vo = redeemWithRetry(userId, gate.item, key);
+                returnPermit = false;
+                return vo;
+            } finally {
+                gate.lanes.release();
+            }
+        } catch (DuplicateKeyException e) {
+            // 相同幂等键的并发重试：插入等待先到的事务提交后失败，返回先到的结果
+            Achievement first = achievementMapper.selectByIdempotencyKey(userId, key);
+            if (first == null) {
+                throw new RuntimeException("兑换处理中，请稍后重试");
+            }
+            return toDuplicateVO(first, userId);
+        } catch (SoldOutException e) {
+            // 数据库库存已为 0（如后台调低了库存），令牌清零直至下次同步
+            gate.available.set(0);
+            returnPermit = false;
+            throw new RuntimeException("商品已兑完");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("兑换已取消");
+        } finally {
+            gate.release(returnPermit);
+        }
+    }
+
+    @Override
+    public List<RewardItem> listItems() {
+        LambdaQueryWrapper<RewardItem> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(RewardItem::getStatus, ITEM_ON_SALE)
+               .orderByAsc(RewardItem::getPointsCost)
+               .orderByAsc(RewardItem::getId);
+        return rewardItemMapper.selectList(wrapper);
+    }
+
+    @Override
+    public CursorPageVO<PointsLedger> getLedger(Long userId, Integer size, String cursor) {
+        Long beforeSeq = null;
+        String[] keys = CursorUtil.decode(cursor, 1);
+        if (keys != null) {
+            try {
+                beforeSeq = Long.valueOf(keys[0]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("游标无效");
+            }
+        }
+
+        int limit = Math.min(Math.max(size, 1), Constants.MAX_PAGE_SIZE);
+        LambdaQueryWrapper<PointsLedger> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(PointsLedger::getUserId, userId)
+               .lt(beforeSeq != null, PointsLedger::getSeq, beforeSeq)
+               .orderByDesc(PointsLedger::getSeq);
+        // 多取一条判断是否还有下一页（可超出分页插件的单页上限）
+        Page<PointsLedger> page = new Page<>(1, limit + 1, false);
+        page.setMaxLimit((long) limit + 1);
+        List<PointsLedger> records = pointsLedgerMapper.selectPage(page, wrapper).getRecords();
+        boolean hasMore = records.size() > limit;
+        if (hasMore) {
+            records = records.subList(0, limit);
+        }
+
+        CursorPageVO<PointsLedger> result = new CursorPageVO<>();
+        result.setRecords(records);
+        result.setHasMore(hasMore);
+        if (hasMore) {
+            result.setNextCursor(CursorUtil.encode(records.get(records.size() - 1).getSeq()));
+        }
+        return result;
+    }
+
+    /**
+     * 定期按数据库库存同步令牌数（扣除正在执行的兑换），并移除已下架或删除的商品
+     */
+    @Scheduled(fixedDelayString = "${points.redeem.stock-sync-interval:30000}")
+    public void syncStockGates() {
+        if (gates.isEmpty()) {
+            return;
+        }
+        Map<Long, RewardItem> items = rewardItemMapper.selectBatchIds(gates.keySet()).stream()
+                .collect(Collectors.toMap(RewardItem::getId, Function.identity()));
+        gates.forEach((itemId, gate) -> {
+            RewardItem item = items.get(itemId);
+            if (item == null || !Integer.valueOf(ITEM_ON_SALE).equals(item.getStatus())) {
+                gates.remove(itemId);
+                gate.available.set(0);
+            } else {
+                gate.sync(item);
+            }
+        });
+    }
+
+    /**
+     * 余额版本号冲突时整笔重新执行（每次都是新事务，读到最新余额）
+     */
+    private RedemptionVO redeemWithRetry(Long userId, RewardItem item, String key) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> doRedeem(userId, item, key));
+            } catch (BalanceConflictException e) {
+                if (attempt >= MAX_CAS_ATTEMPTS) {
+                    throw new RuntimeException("积分变动频繁，请稍后重试");
+                }
+            }
+        }
+    }
+
+    /**
+     * 一次兑换事务：先写兑换记录（幂等键唯一），再比较并更新余额、追加流水，最后扣减热点商品行的库存，使其行锁只持有到提交为止
+     */
+    private RedemptionVO doRedeem(Long userId, RewardItem item, String key) {
+        int cost = item.getPointsCost();
+        Achievement record = new Achievement();
+        record.setUserId(userId);
+        record.setType(TYPE_REDEMPTION);
+        record.setItemId(item.getId());
+        record.setIdempotencyKey(key);
+        record.setTitle(item.getName());
+        record.setDescription("兑换" + item.getName() + "，消耗 " + cost + " 积分");
+        record.setPointsChange(-cost);
+        record.setIconUrl(item.getImageUrl());
+        record.setCreateTime(LocalDateTime.now());
+        achievementMapper.insert(record);
+
+        User balance = userMapper.selectBalance(userId);
+        if (balance == null) {
+            throw new RuntimeException("用户不存在");
+        }
+        int points = balance.getPoints() == null ? 0 : balance.getPoints();
+        if (points < cost) {
+            throw new RuntimeException("积分不足");
+        }
+        long version = balance.getPointsVersion() == null ? 0 : balance.getPointsVersion();
+        if (userMapper.compareAndSetPoints(userId, version, points - cost) == 0) {
+            throw new BalanceConflictException();
+        }
+        appendLedger(userId, version + 1, -cost, points - cost, BIZ_REDEEM, String.valueOf(record.getId()));
+
+        if (rewardItemMapper.decrementStock(item.getId()) == 0) {
+            throw new SoldOutException();
+        }
+        leaderboardService.applyDelta(userId, BigDecimal.ZERO, -cost);
+
+        RedemptionVO vo = toVO(record);
+        vo.setBalance(points - cost);
+        vo.setDuplicate(false);
+        return vo;
+    }
+
+    private void appendLedger(Long userId, long seq, int change, int balanceAfter, String bizType, String bizId) {
+        PointsLedger ledger = new PointsLedger();
+        ledger.setUserId(userId);
+        ledger.setSeq(seq);
+        ledger.setChangeAmount(change);
+        ledger.setBalanceAfter(balanceAfter);
+        ledger.setBizType(bizType);
+        ledger.setBizId(bizId);
+        pointsLedgerMapper.insert(ledger);
+    }
+
+    private StockGate gate(Long itemId) {
+        StockGate gate = gates.get(itemId);
+        if (gate != null) {
+            return gate;
+        }
+        RewardItem item = rewardItemMapper.selectById(itemId);
+        if (item == null || !Integer.valueOf(ITEM_ON_SALE).equals(item.getStatus())) {
+            throw new RuntimeException("商品不存在或已下架");
+        }
+        return gates.computeIfAbsent(itemId, id -> new StockGate(item, redeemConcurrency));
+    }
+
+    private RedemptionVO toDuplicateVO(Achievement record, Long userId) {
+        RedemptionVO vo = toVO(record);
+        User balance = userMapper.selectBalance(userId);
+        vo.setBalance(balance == null || balance.getPoints() == null ? 0 : balance.getPoints());
+        vo.setDuplicate(true);
+        return vo;
+    }
+
+    private RedemptionVO toVO(Achievement record) {
+        RedemptionVO vo = new RedemptionVO();
+        vo.setId(record.getId());
+        vo.setItemId(record.getItemId());
+        vo.setItemName(record.getTitle());
+        vo.setPointsCost(record.getPointsChange() == null ? 0 : -record.getPointsChange());
+        vo.setCreateTime(record.getCreateTime());
+        return vo;
+    }
+
+    /**
+     * 单个商品的内存库存令牌与并发通道：令牌数不超过数据库库存减去正在执行的兑换，只用于提前拒绝，不超卖由数据库条件扣减保证
+     */
+    private static class StockGate {
+        private volatile RewardItem item;
+        private final AtomicInteger available;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Semaphore lanes;
+
+        private StockGate(RewardItem item, int concurrency) {
+            this.item = item;
+            this.available = new AtomicInteger(Math.max(item.getStock() == null ? 0 : item.getStock(), 0));
+            this.lanes = new Semaphore(Math.max(concurrency, 1), true);
+        }
+
+        private boolean tryAcquire() {
+            int n;
+            do {
+                n = available.get();
+                if (n <= 0) {
+                    return false;
+                }
+            } while (!available.compareAndSet(n, n - 1));
+            inFlight.incrementAndGet();
+            return true;
+        }
+
+        /**
+         * 兑换结束：未成功扣减库存时归还令牌
+         */
+        private void release(boolean returnPermit) {
+            inFlight.decrementAndGet();
+            if (returnPermit) {
+                available.incrementAndGet();
+            }
+        }
+
+        private void sync(RewardItem latest) {
+            item = latest;
+            int stock = latest.getStock() == null ? 0 : latest.getStock();
+            available.set(Math.max(stock - inFlight.get(), 0));
+        }
+    }
+
+    /**
+     * 余额版本号已被其他请求修改，回滚后重试
+     */
+    private static class BalanceConflictException extends RuntimeException {
+        private BalanceConflictException() {
+            super("积分余额已变化", null, false, false);
+        }
+    }
+
+    /**
+     * 数据库库存不足，回滚本次兑换
+     */
+    private static class SoldOutException extends RuntimeException {
+        private SoldOutException() {
+            super("商品已兑完", null, false, false);
+        }
+    }
+}
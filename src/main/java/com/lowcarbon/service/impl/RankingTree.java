@@ -0,0 +1,216 @@
+package com.lowcarbon.service.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 排行用的顺序统计树（Treap）：按 分数降序、用户ID升序 排列，节点维护子树大小，更新与名次查询 O(log n)
+ * 只保存分数大于 0 的用户；非线程安全，由调用方加锁
+ */
+final class RankingTree {
+
+    private static final class Node {
+        final long userId;
+        final long score;
+        final int priority;
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(long userId, long score) {
+            this.userId = userId;
+            this.score = score;
+            this.priority = ThreadLocalRandom.current().nextInt();
+        }
+    }
+
+    /**
+     * 排行条目：名次（分数相同名次相同）、用户ID与分数
+     */
+    static final class Entry {
+        final int rank;
+        final long userId;
+        final long score;
+
+        Entry(int rank, long userId, long score) {
+            this.rank = rank;
+            this.userId = userId;
+            this.score = score;
+        }
+    }
+
+    private final Map<Long, Long> scores = new HashMap<>();
+    private Node root;
+
+    int size() {
+        return scores.size();
+    }
+
+    /**
+     * 用户分数，不在排行中返回 0
+     */
+    long getScore(long userId) {
+        Long score = scores.get(userId);
+        return score == null ? 0 : score;
+    }
+
+    /**
+     * 设置用户分数；分数 ≤ 0 时移出排行
+     */
+    void put(long userId, long score) {
+        Long old = scores.get(userId);
+        if (old != null) {
+            if (old == score) {
+                return;
+            }
+            root = remove(root, old, userId);
+            scores.remove(userId);
+        }
+        if (score > 0) {
+            root = insert(root, new Node(userId, score));
+            scores.put(userId, score);
+        }
+    }
+
+    /**
+     * 名次（并列同名次）：分数严格更高的用户数 + 1；不在排行中的用户排在所有上榜用户之后
+     */
+    int rankOf(long userId) {
+        Long score = scores.get(userId);
+        return score == null ? size() + 1 : countAbove(score) + 1;
+    }
+
+    /**
+     * 分数严格高于 score 的用户数
+     */
+    int countAbove(long score) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.score > score) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 前 n 名（中序遍历，只访问前 n 个节点），分数相同名次相同
+     */
+    List<Entry> top(int n) {
+        List<Entry> result = new ArrayList<>(Math.min(n, size()));
+        Deque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+        int rank = 0;
+        while ((node != null || !stack.isEmpty()) && result.size() < n) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            if (result.isEmpty() || result.get(result.size() - 1).score != node.score) {
+                rank = result.size() + 1;
+            }
+            result.add(new Entry(rank, node.userId, node.score));
+            node = node.right;
+        }
+        return result;
+    }
+
+    private static int compare(long scoreA, long userIdA, long scoreB, long userIdB) {
+        if (scoreA != scoreB) {
+            return scoreA > scoreB ? -1 : 1;
+        }
+        return Long.compare(userIdA, userIdB);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private static Node insert(Node t, Node n) {
+        if (t == null) {
+            return n;
+        }
+        if (compare(n.score, n.userId, t.score, t.userId) < 0) {
+            t.left = insert(t.left, n);
+            if (t.left.priority > t.priority) {
+                t = rotateRight(t);
+            }
+        } else {
+            t.right = insert(t.right, n);
+            if (t.right.priority > t.priority) {
+                t = rotateLeft(t);
+            }
+        }
+        update(t);
+        return t;
+    }
+
+    private static Node remove(Node t, long score, long userId) {
+        if (t == null) {
+            return null;
+        }
+        int c = compare(score, userId, t.score, t.userId);
+        if (c == 0) {
+            return merge(t.left, t.right);
+        }
+        if (c < 0) {
+            t.left = remove(t.left, score, userId);
+        } else {
+            t.right = remove(t.right, score, userId);
+        }
+        update(t);
+        return t;
+    }
+
+    /**
+     * 合并两棵树（a 中所有节点都排在 b 之前）
+     */
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static Node rotateRight(Node t) {
+        Node l = t.left;
+        t.left = l.right;
+        l.right = t;
+        update(t);
+        update(l);
+        return l;
+    }
+
+    private static Node rotateLeft(Node t) {
+        Node r = t.right;
+        t.right = r.left;
+        r.left = t;
+        update(t);
+        update(r);
+        return r;
+    }
+}
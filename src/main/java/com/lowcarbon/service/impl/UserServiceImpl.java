@@ -39,6 +39,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserStatusCache userStatusCache;
+
     @Override
     @Transactional
     public String register(UserRegisterDTO registerDTO) {
@@ -81,6 +84,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
             throw new RuntimeException("用户名或密码错误");
         }
 
+        // 已查到最新的角色与状态，顺带刷新鉴权缓存
+        userStatusCache.put(user);
+
         // 检查用户状态
         if (!Constants.STATUS_NORMAL.equals(user.getStatus())) {
             throw new RuntimeException("账户已被禁用");
@@ -121,12 +127,13 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     @Override
     @Transactional
     public void updateUserInfo(Long userId, UserUpdateDTO updateDTO) {
-        User user = userMapper.selectById(userId);
-        if (user == null) {
+        if (userMapper.selectCount(new LambdaQueryWrapper<User>().eq(User::getId, userId)) == 0) {
             throw new RuntimeException("用户不存在");
         }
 
-        // 更新字段
+        // 只更新资料字段：整行写回会覆盖期间并发变动的积分、减排量与连续打卡
+        User user = new User();
+        user.setId(userId);
         if (StrUtil.isNotBlank(updateDTO.getNickname())) {
             user.setNickname(updateDTO.getNickname());
         }
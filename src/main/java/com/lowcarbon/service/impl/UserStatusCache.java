@@ -0,0 +1,70 @@
+package com.lowcarbon.service.impl;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.lowcarbon.entity.User;
+import com.lowcarbon.mapper.UserMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 鉴权用的用户状态缓存：userId -> (role, status)，鉴权时不再每个请求查询 tb_user
+ * 服务端修改角色/状态时调用 invalidate；直接改库的变更最迟在 ttl 后生效
+ */
+@Component
+public class UserStatusCache {
+
+    // 用户不存在时的占位，避免对已删除用户的 token 反复查库
+    private static final User ABSENT = new User();
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Value("${auth.user-cache.capacity:10000}")
+    private int capacity;
+
+    @Value("${auth.user-cache.ttl:60000}")
+    private long ttl;
+
+    private Cache<Long, User> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = CacheUtil.newLRUCache(capacity, ttl);
+    }
+
+    /**
+     * 用户的角色与状态（仅含 id、role、status），用户不存在返回 null
+     */
+    public User get(Long userId) {
+        // 不刷新访问时间，条目按写入时间过期
+        User user = cache.get(userId, false, () -> load(userId));
+        return user == ABSENT ? null : user;
+    }
+
+    /**
+     * 用已查询到的用户刷新缓存（如登录时）
+     */
+    public void put(User user) {
+        User status = new User();
+        status.setId(user.getId());
+        status.setRole(user.getRole());
+        status.setStatus(user.getStatus());
+        cache.put(user.getId(), status);
+    }
+
+    public void invalidate(Long userId) {
+        cache.remove(userId);
+    }
+
+    private User load(Long userId) {
+        LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(User::getId, User::getRole, User::getStatus)
+               .eq(User::getId, userId);
+        User user = userMapper.selectOne(wrapper);
+        return user == null ? ABSENT : user;
+    }
+}
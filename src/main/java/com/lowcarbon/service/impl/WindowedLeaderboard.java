@@ -0,0 +1,470 @@
+package com.lowcarbon.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lowcarbon.entity.Footprint;
+import com.lowcarbon.event.FootprintAmendedEvent;
+import com.lowcarbon.event.FootprintDeletedEvent;
+import com.lowcarbon.event.FootprintRecordedEvent;
+import com.lowcarbon.mapper.FootprintDailyMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 时间窗口排行（本周、本月）：消费碳足迹新增/修改/删除事件，在内存中维护当前窗口内每个用户的减排量与打卡天数
+ * 窗口在配置时区的零点滚动，关闭的窗口归档为快照文件；停机时保存当前窗口，启动时恢复，无快照时由日汇总表重建
+ */
+@Slf4j
+@Component
+public class WindowedLeaderboard {
+
+    public static final String PERIOD_WEEK = "week";
+    public static final String PERIOD_MONTH = "month";
+
+    public static final String METRIC_REDUCTION = "reduction";
+    public static final String METRIC_DAYS = "days";
+
+    // 停机时保存的当前窗口快照，启动恢复后删除
+    private static final String CURRENT_SNAPSHOT = "current.json";
+
+    @Autowired
+    private FootprintDailyMapper footprintDailyMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${leaderboard.zone:Asia/Shanghai}")
+    private String zone;
+
+    @Value("${leaderboard.snapshot-dir:data/leaderboard}")
+    private String snapshotDir;
+
+    private ZoneId zoneId;
+
+    private Window week;
+    private Window month;
+
+    @PostConstruct
+    public synchronized void init() {
+        zoneId = ZoneId.of(zone);
+        LocalDate today = today();
+        week = newWindow(PERIOD_WEEK, today);
+        month = newWindow(PERIOD_MONTH, today);
+
+        List<Window> restored = restoreSnapshot(today);
+        List<Window> toRebuild = new ArrayList<>();
+        for (Window window : List.of(week, month)) {
+            if (!restored.contains(window)) {
+                toRebuild.add(window);
+            }
+        }
+        if (!toRebuild.isEmpty()) {
+            try {
+                rebuild(toRebuild);
+            } catch (RuntimeException e) {
+                log.warn("时间窗口排行重建失败，从空排行开始累计", e);
+            }
+        }
+    }
+
+    /**
+     * 新增记录计入其记录日期所在的窗口（事务提交后处理，回滚的记录不计入）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRecorded(FootprintRecordedEvent event) {
+        rollOverIfNeeded();
+        for (Footprint footprint : event.getFootprints()) {
+            apply(event.getUserId(), footprint, 1);
+        }
+    }
+
+    /**
+     * 修改记录：先扣除修改前的值，再计入修改后的值（记录日期可能跨窗口）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onAmended(FootprintAmendedEvent event) {
+        rollOverIfNeeded();
+        apply(event.getUserId(), event.getBefore(), -1);
+        apply(event.getUserId(), event.getAfter(), 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onDeleted(FootprintDeletedEvent event) {
+        rollOverIfNeeded();
+        apply(event.getUserId(), event.getFootprint(), -1);
+    }
+
+    /**
+     * 每天零点检查窗口是否需要滚动（查询与事件处理时也会检查，定时任务保证无流量时按时归档）
+     */
+    @Scheduled(cron = "0 0 0 * * ?", zone = "${leaderboard.zone:Asia/Shanghai}")
+    public synchronized void rollOver() {
+        rollOverIfNeeded();
+    }
+
+    /**
+     * 窗口前 size 名；返回的条目只含名次、用户ID、减排量与打卡天数
+     */
+    public synchronized List<WindowEntry> top(String period, String metric, int size) {
+        rollOverIfNeeded();
+        Window window = window(period);
+        List<WindowEntry> entries = new ArrayList<>();
+        for (RankingTree.Entry entry : window.tree(metric).top(size)) {
+            entries.add(window.toEntry(entry.userId, entry.rank));
+        }
+        return entries;
+    }
+
+    /**
+     * 用户在窗口中的名次，未上榜时排在所有上榜用户之后
+     */
+    public synchronized WindowEntry rankOf(String period, String metric, long userId) {
+        rollOverIfNeeded();
+        Window window = window(period);
+        return window.toEntry(userId, window.tree(metric).rankOf(userId));
+    }
+
+    /**
+     * 窗口的起止日期（含）
+     */
+    public synchronized LocalDate[] range(String period) {
+        rollOverIfNeeded();
+        Window window = window(period);
+        return new LocalDate[]{window.start, window.end};
+    }
+
+    /**
+     * 停机时保存当前窗口，重启后无需回扫日汇总表
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        SnapshotFile snapshot = new SnapshotFile();
+        snapshot.setWindows(List.of(week.toSnapshot(), month.toSnapshot()));
+        writeSnapshot(CURRENT_SNAPSHOT, snapshot);
+    }
+
+    private Window window(String period) {
+        if (period == null || PERIOD_WEEK.equals(period)) {
+            return week;
+        }
+        if (PERIOD_MONTH.equals(period)) {
+            return month;
+        }
+        throw new RuntimeException("排行周期仅支持 week 或 month");
+    }
+
+    private void rollOverIfNeeded() {
+        LocalDate today = today();
+        if (today.isAfter(week.end)) {
+            archive(week);
+            week = newWindow(PERIOD_WEEK, today);
+        }
+        if (today.isAfter(month.end)) {
+            archive(month);
+            month = newWindow(PERIOD_MONTH, today);
+        }
+    }
+
+    private void apply(Long userId, Footprint footprint, int sign) {
+        if (userId == null || footprint == null || footprint.getRecordDate() == null) {
+            return;
+        }
+        long cents = toCents(footprint.getReductionAmount()) * sign;
+        week.add(userId, footprint.getRecordDate(), sign, cents);
+        month.add(userId, footprint.getRecordDate(), sign, cents);
+    }
+
+    /**
+     * 由日汇总表重建窗口（一次查询覆盖所有待重建窗口的日期范围）
+     */
+    private void rebuild(List<Window> windows) {
+        LocalDate start = windows.get(0).start;
+        LocalDate end = windows.get(0).end;
+        for (Window window : windows) {
+            start = window.start.isBefore(start) ? window.start : start;
+            end = window.end.isAfter(end) ? window.end : end;
+        }
+        List<Map<String, Object>> rows = footprintDailyMapper.selectUserDailyTotals(start, end);
+        for (Map<String, Object> row : rows) {
+            long userId = ((Number) row.get("userId")).longValue();
+            LocalDate recordDate = toLocalDate(row.get("recordDate"));
+            int count = ((Number) row.get("recordCount")).intValue();
+            long cents = toCents(toBigDecimal(row.get("reductionAmount")));
+            for (Window window : windows) {
+                window.add(userId, recordDate, count, cents);
+            }
+        }
+        log.info("时间窗口排行已由日汇总表重建：{} 至 {}，共 {} 条日汇总", start, end, rows.size());
+    }
+
+    /**
+     * 读取停机快照：与当前窗口一致的直接恢复；已关闭的窗口补写归档（停机期间跨过了零点）
+     */
+    private List<Window> restoreSnapshot(LocalDate today) {
+        List<Window> restored = new ArrayList<>();
+        File file = Paths.get(snapshotDir, CURRENT_SNAPSHOT).toFile();
+        if (!file.exists()) {
+            return restored;
+        }
+        try {
+            SnapshotFile snapshot = objectMapper.readValue(file, SnapshotFile.class);
+            for (WindowSnapshot ws : snapshot.getWindows()) {
+                Window window = Window.fromSnapshot(ws);
+                Window current = PERIOD_MONTH.equals(ws.getPeriod()) ? month : week;
+                if (window.start.equals(current.start) && window.end.equals(current.end)) {
+                    if (current == week) {
+                        week = window;
+                    } else {
+                        month = window;
+                    }
+                    restored.add(window);
+                } else if (window.end.isBefore(today)) {
+                    archive(window);
+                }
+            }
+            log.info("时间窗口排行已从快照恢复 {} 个窗口", restored.size());
+        } catch (IOException | RuntimeException e) {
+            log.warn("读取时间窗口排行快照失败，改为由日汇总表重建", e);
+            restored.clear();
+            week = newWindow(PERIOD_WEEK, today);
+            month = newWindow(PERIOD_MONTH, today);
+        }
+        // 快照只用一次，避免下次异常退出后恢复出过期数据
+        if (!file.delete()) {
+            log.warn("删除时间窗口排行快照失败：{}", file);
+        }
+        return restored;
+    }
+
+    /**
+     * 关闭的窗口写入归档文件，如 week-2024-06-03.json、month-2024-06-01.json
+     */
+    private void archive(Window window) {
+        SnapshotFile snapshot = new SnapshotFile();
+        snapshot.setWindows(List.of(window.toSnapshot()));
+        writeSnapshot(window.period + "-" + window.start + ".json", snapshot);
+        log.info("时间窗口排行已归档：{} {} 至 {}，上榜用户 {} 人",
+                window.period, window.start, window.end, window.users.size());
+    }
+
+    private void writeSnapshot(String fileName, SnapshotFile snapshot) {
+        try {
+            Path dir = Paths.get(snapshotDir);
+            Files.createDirectories(dir);
+            // 先写临时文件再改名，避免写到一半的文件被读取
+            Path tmp = dir.resolve(fileName + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), snapshot);
+            Files.move(tmp, dir.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("写入时间窗口排行快照失败：{}", fileName, e);
+        }
+    }
+
+    private Window newWindow(String period, LocalDate today) {
+        if (PERIOD_MONTH.equals(period)) {
+            return new Window(period, today.withDayOfMonth(1), today.with(TemporalAdjusters.lastDayOfMonth()));
+        }
+        LocalDate monday = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return new Window(period, monday, monday.plusDays(6));
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(zoneId);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+
+    /**
+     * 一个窗口：每个用户的减排量与逐日记录数，以及按减排量、打卡天数排序的两棵排行树
+     */
+    private static final class Window {
+        final String period;
+        final LocalDate start;
+        final LocalDate end;
+        final int days;
+        final Map<Long, UserStats> users = new HashMap<>();
+        final RankingTree reductionTree = new RankingTree();
+        final RankingTree daysTree = new RankingTree();
+
+        Window(String period, LocalDate start, LocalDate end) {
+            this.period = period;
+            this.start = start;
+            this.end = end;
+            this.days = (int) ChronoUnit.DAYS.between(start, end) + 1;
+        }
+
+        /**
+         * 累加某天的记录数与减排量（可为负）；不在窗口内的日期忽略
+         */
+        void add(long userId, LocalDate date, int countDelta, long centsDelta) {
+            if (date.isBefore(start) || date.isAfter(end)) {
+                return;
+            }
+            UserStats stats = users.computeIfAbsent(userId, k -> new UserStats(days));
+            int index = (int) ChronoUnit.DAYS.between(start, date);
+            int before = stats.dayCounts[index];
+            int after = Math.max(before + countDelta, 0);
+            stats.dayCounts[index] = after;
+            if (before == 0 && after > 0) {
+                stats.checkedDays++;
+            } else if (before > 0 && after == 0) {
+                stats.checkedDays--;
+            }
+            stats.reductionCents += centsDelta;
+            update(userId, stats);
+        }
+
+        void update(long userId, UserStats stats) {
+            if (stats.checkedDays == 0) {
+                // 窗口内已无记录
+                users.remove(userId);
+                reductionTree.put(userId, 0);
+                daysTree.put(userId, 0);
+                return;
+            }
+            reductionTree.put(userId, Math.max(stats.reductionCents, 0));
+            daysTree.put(userId, stats.checkedDays);
+        }
+
+        RankingTree tree(String metric) {
+            if (metric == null || METRIC_REDUCTION.equals(metric)) {
+                return reductionTree;
+            }
+            if (METRIC_DAYS.equals(metric)) {
+                return daysTree;
+            }
+            throw new RuntimeException("排行类型仅支持 reduction 或 days");
+        }
+
+        WindowEntry toEntry(long userId, int rank) {
+            UserStats stats = users.get(userId);
+            WindowEntry entry = new WindowEntry();
+            entry.setRank(rank);
+            entry.setUserId(userId);
+            entry.setReduction(BigDecimal.valueOf(stats == null ? 0 : Math.max(stats.reductionCents, 0), 2));
+            entry.setCheckinDays(stats == null ? 0 : stats.checkedDays);
+            return entry;
+        }
+
+        WindowSnapshot toSnapshot() {
+            WindowSnapshot snapshot = new WindowSnapshot();
+            snapshot.setPeriod(period);
+            snapshot.setStartDate(start);
+            snapshot.setEndDate(end);
+            List<UserSnapshot> list = new ArrayList<>(users.size());
+            users.forEach((userId, stats) -> {
+                UserSnapshot us = new UserSnapshot();
+                us.setUserId(userId);
+                us.setReductionCents(stats.reductionCents);
+                us.setDayCounts(stats.dayCounts.clone());
+                list.add(us);
+            });
+            snapshot.setUsers(list);
+            return snapshot;
+        }
+
+        static Window fromSnapshot(WindowSnapshot snapshot) {
+            Window window = new Window(snapshot.getPeriod(), snapshot.getStartDate(), snapshot.getEndDate());
+            for (UserSnapshot us : snapshot.getUsers()) {
+                if (us.getDayCounts() == null || us.getDayCounts().length != window.days) {
+                    throw new RuntimeException("快照数据与窗口天数不一致");
+                }
+                UserStats stats = new UserStats(window.days);
+                stats.reductionCents = us.getReductionCents();
+                for (int i = 0; i < window.days; i++) {
+                    stats.dayCounts[i] = us.getDayCounts()[i];
+                    if (stats.dayCounts[i] > 0) {
+                        stats.checkedDays++;
+                    }
+                }
+                if (stats.checkedDays > 0) {
+                    window.users.put(us.getUserId(), stats);
+                    window.update(us.getUserId(), stats);
+                }
+            }
+            return window;
+        }
+    }
+
+    private static final class UserStats {
+        final int[] dayCounts;
+        long reductionCents;
+        int checkedDays;
+
+        UserStats(int days) {
+            this.dayCounts = new int[days];
+        }
+    }
+
+    /**
+     * 窗口排行条目
+     */
+    @Data
+    public static class WindowEntry {
+        private int rank;
+        private long userId;
+        private BigDecimal reduction;
+        private int checkinDays;
+    }
+
+    @Data
+    static class SnapshotFile {
+        private List<WindowSnapshot> windows = new ArrayList<>();
+    }
+
+    @Data
+    static class WindowSnapshot {
+        private String period;
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private List<UserSnapshot> users = new ArrayList<>();
+    }
+
+    @Data
+    static class UserSnapshot {
+        private Long userId;
+        private long reductionCents;
+        private int[] dayCounts; // 窗口内逐日记录数，下标 0 为窗口首日
+    }
+}
@@ -1,8 +1,13 @@
 package com.lowcarbon.util;
 
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.crypto.digest.DigestUtil;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -20,8 +25,24 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.claims-cache.capacity:10000}")
+    private int claimsCacheCapacity;
+
+    @Value("${jwt.claims-cache.max-ttl:300000}")
+    private long claimsCacheMaxTtl;
+
+    // 签名密钥与解析器只构建一次
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // 已验签的 token -> claims，按 token 的 SHA-256 索引；有效期不超过 token 自身的过期时间
+    private Cache<String, Claims> claimsCache;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        claimsCache = CacheUtil.newLRUCache(claimsCacheCapacity);
     }
 
     public String generateToken(Long userId, String username, String role) {
@@ -39,16 +60,30 @@ public class JwtUtil {
                 .claims(claims)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * 解析并验签；同一 token 再次解析时直接返回缓存的 claims，跳过验签
+     */
     public Claims parseToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        String key = DigestUtil.sha256Hex(token);
+        // 不刷新访问时间，缓存条目按写入时的有效期过期
+        Claims claims = claimsCache.get(key, false);
+        if (claims != null) {
+            return claims;
+        }
+        claims = parser.parseSignedClaims(token).getPayload();
+        long ttl = claimsCacheMaxTtl;
+        Date expiryDate = claims.getExpiration();
+        if (expiryDate != null) {
+            ttl = Math.min(ttl, expiryDate.getTime() - System.currentTimeMillis());
+        }
+        if (ttl > 0) {
+            claimsCache.put(key, claims, ttl);
+        }
+        return claims;
     }
 
     public Long getUserIdFromToken(String token) {
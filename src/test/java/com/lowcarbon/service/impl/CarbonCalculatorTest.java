@@ -0,0 +1,123 @@
+package com.lowcarbon.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 定点计算与原 BigDecimal 计算（multiply().setScale(2, HALF_UP)，积分 multiply(10).intValue()）的对照：
+ * 固定种子随机生成数据值与系数，覆盖负数、大数、不同小数位数与溢出后退回 BigDecimal 的情况
+ */
+class CarbonCalculatorTest {
+
+    private static final long SEED = 20240301L;
+    private static final int ITERATIONS = 200_000;
+
+    @Test
+    void matchesBigDecimalOnBoundaryValues() {
+        String[] values = {"0", "0.01", "-0.01", "0.5", "1", "-1", "12.35", "99999999.99", "-99999999.99",
+                "1E+3", "1E-10", "0.005", "-0.005", "0.015", "0.0049999999", "922337203685477580.7", "-922337203685477580.8",
+                "9223372036854775807", "-9223372036854775808", "92233720368547758.07", "123456789012345678901234.5"};
+        String[] coefficients = {"0", "0.0000", "0.089", "0.0890", "0.055", "0.5", "-0.5", "1", "0.785",
+                "1E+2", "1E-8", "0.00000001", "12345678.12345678", "-0.0001", "999999999999999999"};
+        for (String value : values) {
+            for (String coefficient : coefficients) {
+                assertMatchesBigDecimal(new BigDecimal(value), new BigDecimal(coefficient));
+            }
+        }
+    }
+
+    @Test
+    void matchesBigDecimalOnRandomMixedScaleValues() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertMatchesBigDecimal(randomDecimal(random, 1 + random.nextInt(63), random.nextInt(12) - 2),
+                    randomDecimal(random, 1 + random.nextInt(40), random.nextInt(12) - 2));
+        }
+    }
+
+    @Test
+    void matchesBigDecimalOnHalfUpTies() {
+        // 舍去部分恰为 0.5 分（正负各一）时向远离 0 的方向进位
+        Random random = new Random(SEED);
+        for (int i = 0; i < ITERATIONS; i++) {
+            long cents = random.nextLong() >> random.nextInt(64);
+            BigDecimal value = new BigDecimal(BigInteger.valueOf(cents).multiply(BigInteger.TEN).add(BigInteger.valueOf(cents < 0 ? -5 : 5)), 3);
+            assertMatchesBigDecimal(value, BigDecimal.ONE);
+            assertMatchesBigDecimal(value.negate(), new BigDecimal("1.0000"));
+        }
+    }
+
+    @Test
+    void matchesBigDecimalWhenProductOverflowsLong() {
+        // 数据值与系数的未缩放值相乘超出 long，但按 2 位小数舍入后仍在 long 内：退回 BigDecimal 计算
+        Random random = new Random(SEED);
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            BigDecimal value = randomDecimal(random, 40 + random.nextInt(23), 2 + random.nextInt(4));
+            BigDecimal coefficient = randomDecimal(random, 30 + random.nextInt(20), 10 + random.nextInt(6));
+            assertMatchesBigDecimal(value, coefficient);
+        }
+    }
+
+    @Test
+    void matchesBigDecimalOnHighPrecisionValues() {
+        // 精度超过 18 位的数据值或系数不走定点计算
+        Random random = new Random(SEED);
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            BigDecimal value = new BigDecimal(new BigInteger(64 + random.nextInt(40), random), 20 + random.nextInt(10));
+            BigDecimal coefficient = new BigDecimal(new BigInteger(64 + random.nextInt(20), random), 18 + random.nextInt(6));
+            assertMatchesBigDecimal(random.nextBoolean() ? value : value.negate(), new BigDecimal("0.089"));
+            assertMatchesBigDecimal(new BigDecimal("12.35"), random.nextBoolean() ? coefficient : coefficient.negate());
+        }
+    }
+
+    @Test
+    void rejectsResultOutsideLong() {
+        assertThatThrownBy(() -> CarbonCalculator.reductionCents(new BigDecimal("9223372036854775807"),
+                CarbonCalculator.Coefficient.of(new BigDecimal("1000"))))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("数据值过大");
+    }
+
+    @Test
+    void pointsTruncateTowardZero() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < ITERATIONS; i++) {
+            long cents = random.nextLong() >> random.nextInt(64);
+            BigDecimal reduction = BigDecimal.valueOf(cents, CarbonCalculator.REDUCTION_SCALE);
+            assertThat(CarbonCalculator.points(cents))
+                    .as("points(%s)", reduction)
+                    .isEqualTo(reduction.multiply(new BigDecimal(CarbonCalculator.POINTS_PER_KG)).intValue());
+        }
+    }
+
+    /**
+     * 随机数：未缩放值的位数为 bits，随机正负，小数位数为 scale（可为负）
+     */
+    private static BigDecimal randomDecimal(Random random, int bits, int scale) {
+        BigInteger unscaled = new BigInteger(bits, random);
+        return new BigDecimal(random.nextBoolean() ? unscaled : unscaled.negate(), scale);
+    }
+
+    private static void assertMatchesBigDecimal(BigDecimal dataValue, BigDecimal coefficient) {
+        BigDecimal expected = dataValue.multiply(coefficient).setScale(CarbonCalculator.REDUCTION_SCALE, RoundingMode.HALF_UP);
+        CarbonCalculator.Coefficient fixed = CarbonCalculator.Coefficient.of(coefficient);
+        if (expected.unscaledValue().bitLength() > 63) {
+            assertThatThrownBy(() -> CarbonCalculator.reductionCents(dataValue, fixed))
+                    .as("%s × %s", dataValue, coefficient)
+                    .hasMessage("数据值过大");
+            return;
+        }
+        long cents = CarbonCalculator.reductionCents(dataValue, fixed);
+        assertThat(CarbonCalculator.toReduction(cents)).as("%s × %s", dataValue, coefficient).isEqualTo(expected);
+        assertThat(CarbonCalculator.points(cents))
+                .as("points(%s × %s)", dataValue, coefficient)
+                .isEqualTo(expected.multiply(new BigDecimal(CarbonCalculator.POINTS_PER_KG)).intValue());
+    }
+}
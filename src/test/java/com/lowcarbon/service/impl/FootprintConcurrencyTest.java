@@ -0,0 +1,147 @@
+package com.lowcarbon.service.impl;
+
+import com.lowcarbon.dto.FootprintCreateDTO;
+import com.lowcarbon.service.FootprintService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 碳足迹并发写入压测：大量并发新增、修改、删除（含同一条记录上的并发修改/删除），待事件处理完成后，
+ * 用户累计减排量与积分等于 tb_footprint 明细合计
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FootprintConcurrencyTest {
+
+    private static final int USERS = 8;
+    private static final int SEED_PER_USER = 10;
+    private static final int THREADS = 32;
+    private static final int OPERATIONS = 4000;
+    private static final String[] TYPES = {"BUS", "SUBWAY", "ELECTRIC_CAR", "SAVE_ELEC", "SAVE_WATER"};
+    private static final LocalDate BASE_DATE = LocalDate.of(2024, 3, 1);
+
+    @Autowired
+    private FootprintService footprintService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void totalsMatchFootprintSumsAfterParallelWrites() throws Exception {
+        List<Long> userIds = createUsers();
+        // 每个用户的记录池：修改、删除从池中随机挑选，同一条记录会被多个线程同时修改或删除
+        Map<Long, List<Long>> pools = new HashMap<>();
+        for (Long userId : userIds) {
+            List<Long> pool = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < SEED_PER_USER; i++) {
+                pool.add(footprintService.createFootprint(randomDTO(ThreadLocalRandom.current()), userId).getId());
+            }
+            pools.put(userId, pool);
+        }
+
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS; i++) {
+                futures.add(executor.submit(() -> {
+                    Random random = ThreadLocalRandom.current();
+                    Long userId = userIds.get(random.nextInt(userIds.size()));
+                    List<Long> pool = pools.get(userId);
+                    int op = random.nextInt(10);
+                    try {
+                        if (op < 4 || pool.isEmpty()) {
+                            pool.add(footprintService.createFootprint(randomDTO(random), userId).getId());
+                        } else if (op < 8) {
+                            footprintService.updateFootprint(pick(pool, random), randomDTO(random), userId);
+                        } else {
+                            footprintService.deleteFootprint(pick(pool, random), userId);
+                        }
+                    } catch (RuntimeException e) {
+                        // 记录已被并发删除属正常情况，其余异常均为失败
+                        if (e.getMessage() == null || !e.getMessage().startsWith("记录不存在")) {
+                            failures.add(e);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(failures).isEmpty();
+        awaitEventsDrained(userIds);
+
+        for (Long userId : userIds) {
+            Map<String, Object> expected = jdbcTemplate.queryForMap(
+                    "SELECT COALESCE(SUM(reduction_amount), 0) AS reduction, COALESCE(SUM(points_earned), 0) AS points " +
+                    "FROM tb_footprint WHERE user_id = ?", userId);
+            Map<String, Object> user = jdbcTemplate.queryForMap(
+                    "SELECT total_reduction, points FROM tb_user WHERE id = ?", userId);
+            assertThat((BigDecimal) user.get("total_reduction")).isEqualByComparingTo((BigDecimal) expected.get("reduction"));
+            assertThat(((Number) user.get("points")).longValue()).isEqualTo(((Number) expected.get("points")).longValue());
+        }
+    }
+
+    /**
+     * 等待压测用户的事件全部处理完毕（处理成功的事件即被删除），失败事件会留在表中
+     */
+    private void awaitEventsDrained(List<Long> userIds) throws InterruptedException {
+        String in = userIds.toString().replace('[', '(').replace(']', ')');
+        long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(2);
+        Integer pending;
+        do {
+            Thread.sleep(100);
+            pending = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM tb_footprint_event WHERE user_id IN " + in, Integer.class);
+        } while (pending != null && pending > 0 && System.currentTimeMillis() < deadline);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT id, status, last_error FROM tb_footprint_event WHERE user_id IN " + in)).isEmpty();
+    }
+
+    private List<Long> createUsers() {
+        String prefix = "stress_" + System.nanoTime() + "_";
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            jdbcTemplate.update("INSERT INTO tb_user (username, password, nickname) VALUES (?, 'x', ?)", prefix + i, prefix + i);
+            userIds.add(jdbcTemplate.queryForObject("SELECT id FROM tb_user WHERE username = ?", Long.class, prefix + i));
+        }
+        return userIds;
+    }
+
+    private static FootprintCreateDTO randomDTO(Random random) {
+        FootprintCreateDTO dto = new FootprintCreateDTO();
+        dto.setBehaviorType(TYPES[random.nextInt(TYPES.length)]);
+        dto.setBehaviorName(dto.getBehaviorType());
+        dto.setDataValue(BigDecimal.valueOf(1 + random.nextInt(5000), 2));
+        dto.setRecordDate(BASE_DATE.plusDays(random.nextInt(5)));
+        return dto;
+    }
+
+    private static Long pick(List<Long> pool, Random random) {
+        int size = pool.size();
+        return size == 0 ? -1L : pool.get(random.nextInt(size));
+    }
+}
@@ -0,0 +1,242 @@
+package com.lowcarbon.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lowcarbon.entity.Footprint;
+import com.lowcarbon.entity.FootprintEvent;
+import com.lowcarbon.event.FootprintDeletedEvent;
+import com.lowcarbon.event.FootprintRecordedEvent;
+import com.lowcarbon.mapper.FootprintEventMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 事件处理：同一批内先新增后删除的汇总行清理、已处理事件被再次分发时不重复累计、
+ * 出错事件经逐条重试后标记为失败、失败事件重新排队前日汇总重建跳过该用户
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FootprintEventHandlerTest {
+
+    private static final LocalDate DAY_ONE = LocalDate.of(2024, 5, 1);
+    private static final LocalDate DAY_TWO = LocalDate.of(2024, 5, 2);
+
+    // 事件中的记录不写入 tb_footprint，ID 取一个不会与真实记录冲突的区间
+    private static final AtomicLong FOOTPRINT_IDS = new AtomicLong(900_000_000L);
+
+    @Autowired
+    private FootprintEventHandler footprintEventHandler;
+
+    @Autowired
+    private FootprintEventOutbox footprintEventOutbox;
+
+    @Autowired
+    private FootprintEventMapper footprintEventMapper;
+
+    @Autowired
+    private FootprintDailyRollup footprintDailyRollup;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        // 停止后台处理，由用例直接调用 handle，避免分发线程抢先处理用例写入的事件
+        footprintEventOutbox.stop();
+        userId = createUser();
+    }
+
+    @AfterEach
+    void restartOutbox() throws InterruptedException {
+        footprintEventOutbox.stop();
+        footprintEventOutbox.start();
+    }
+
+    @Test
+    void createThenDeleteInOneBatchLeavesNoEmptyRollupRow() throws Exception {
+        Footprint kept = footprint(DAY_ONE, "1.20", 12);
+        footprintEventHandler.handle(List.of(append(FootprintEventOutbox.TYPE_RECORDED, new FootprintRecordedEvent(userId, List.of(kept)))));
+
+        // 同一批：新增两条（其中一条与已有记录同日同类型），随后删除这两条
+        Footprint sameRow = footprint(DAY_ONE, "0.89", 8);
+        Footprint ownRow = footprint(DAY_TWO, "2.50", 25);
+        List<FootprintEvent> batch = List.of(
+                append(FootprintEventOutbox.TYPE_RECORDED, new FootprintRecordedEvent(userId, List.of(sameRow, ownRow))),
+                append(FootprintEventOutbox.TYPE_DELETED, new FootprintDeletedEvent(userId, sameRow)),
+                append(FootprintEventOutbox.TYPE_DELETED, new FootprintDeletedEvent(userId, ownRow)));
+        footprintEventHandler.handle(batch);
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT record_date, record_count, reduction_amount, points_earned FROM tb_footprint_daily WHERE user_id = ?", userId);
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).get("record_date").toString()).isEqualTo(DAY_ONE.toString());
+        assertThat(((Number) rows.get(0).get("record_count")).intValue()).isEqualTo(1);
+        assertThat((BigDecimal) rows.get(0).get("reduction_amount")).isEqualByComparingTo("1.20");
+        assertThat(((Number) rows.get(0).get("points_earned")).intValue()).isEqualTo(12);
+        assertUserTotals("1.20", 12);
+        assertThat(pendingEvents()).isZero();
+    }
+
+    @Test
+    void redispatchedEventIsSkipped() throws Exception {
+        FootprintEvent event = append(FootprintEventOutbox.TYPE_RECORDED,
+                new FootprintRecordedEvent(userId, List.of(footprint(DAY_ONE, "3.00", 30))));
+        footprintEventHandler.handle(List.of(event));
+
+        // 分发线程持有的旧副本再次交给处理：事件已删除，lockPending 不返回，不重复累计
+        footprintEventHandler.handle(List.of(event));
+
+        assertUserTotals("3.00", 30);
+        assertThat(rollupCount()).isEqualTo(1);
+        assertThat(ledgerCount()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentHandlingOfSameEventAppliesOnce() throws Exception {
+        FootprintEvent event = append(FootprintEventOutbox.TYPE_RECORDED,
+                new FootprintRecordedEvent(userId, List.of(footprint(DAY_ONE, "4.56", 45))));
+
+        // 两个线程同时处理同一事件：后到的在 lockPending 处等待，先到的提交后事件已删除
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        Runnable handle = () -> {
+            try {
+                barrier.await(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            footprintEventHandler.handle(List.of(event));
+        };
+        CompletableFuture.allOf(CompletableFuture.runAsync(handle), CompletableFuture.runAsync(handle))
+                .get(30, TimeUnit.SECONDS);
+
+        assertUserTotals("4.56", 45);
+        assertThat(rollupCount()).isEqualTo(1);
+        assertThat(ledgerCount()).isEqualTo(1);
+    }
+
+    @Test
+    void poisonEventIsMarkedFailedWithoutBlockingLaterEvents() throws Exception {
+        FootprintEvent poison = new FootprintEvent();
+        poison.setEventType("FootprintUnknown");
+        poison.setUserId(userId);
+        poison.setPayload("{}");
+        footprintEventMapper.insert(poison);
+        append(FootprintEventOutbox.TYPE_RECORDED, new FootprintRecordedEvent(userId, List.of(footprint(DAY_ONE, "0.50", 5))));
+        footprintEventOutbox.start();
+
+        // 后台处理：整批失败后逐条重试，出错事件重试 5 次后标记为失败，其后的事件正常处理
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        Map<String, Object> failed;
+        do {
+            Thread.sleep(50);
+            failed = jdbcTemplate.queryForMap("SELECT status, attempts, last_error FROM tb_footprint_event WHERE id = ?", poison.getId());
+        } while ((((Number) failed.get("status")).intValue() != 2 || pendingEvents() > 0) && System.currentTimeMillis() < deadline);
+
+        assertThat(((Number) failed.get("status")).intValue()).isEqualTo(2);
+        assertThat(((Number) failed.get("attempts")).intValue()).isEqualTo(5);
+        assertThat((String) failed.get("last_error")).contains("未知的碳足迹事件类型");
+        assertThat(pendingEvents()).isZero();
+        assertUserTotals("0.50", 5);
+    }
+
+    @Test
+    void rebuildSkipsUserWithFailedEventUntilRequeued() throws Exception {
+        // 明细已写入、事件处理失败：汇总与用户累计都未计入
+        Footprint footprint = footprint(DAY_ONE, "0.89", 8);
+        jdbcTemplate.update("INSERT INTO tb_footprint (id, user_id, behavior_type, behavior_name, coefficient, factor_version, " +
+                        "data_value, reduction_amount, points_earned, record_date) VALUES (?, ?, 'BUS', '公交出行', 0.0890, 1, 10.00, 0.89, 8, ?)",
+                footprint.getId(), userId, DAY_ONE);
+        FootprintEvent event = append(FootprintEventOutbox.TYPE_RECORDED, new FootprintRecordedEvent(userId, List.of(footprint)));
+        footprintEventMapper.recordFailure(event.getId(), "test", 2);
+
+        // 重建跳过该用户，否则重新排队处理后会重复计入
+        assertThat(footprintDailyRollup.rebuild(userId)).isFalse();
+        assertThat(rollupCount()).isZero();
+
+        assertThat(footprintEventOutbox.requeueFailed()).isPositive();
+        Map<String, Object> requeued = jdbcTemplate.queryForMap("SELECT status, attempts FROM tb_footprint_event WHERE id = ?", event.getId());
+        assertThat(((Number) requeued.get("status")).intValue()).isZero();
+        assertThat(((Number) requeued.get("attempts")).intValue()).isZero();
+        footprintEventHandler.handle(List.of(event));
+
+        assertThat(footprintDailyRollup.rebuild(userId)).isTrue();
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT record_count, reduction_amount, points_earned FROM tb_footprint_daily WHERE user_id = ?", userId);
+        assertThat(rows).hasSize(1);
+        assertThat(((Number) rows.get(0).get("record_count")).intValue()).isEqualTo(1);
+        assertThat((BigDecimal) rows.get(0).get("reduction_amount")).isEqualByComparingTo("0.89");
+        assertThat(((Number) rows.get(0).get("points_earned")).intValue()).isEqualTo(8);
+        assertUserTotals("0.89", 8);
+    }
+
+    private Long createUser() {
+        String username = "handler_" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO tb_user (username, password, nickname) VALUES (?, 'x', ?)", username, username);
+        return jdbcTemplate.queryForObject("SELECT id FROM tb_user WHERE username = ?", Long.class, username);
+    }
+
+    private Footprint footprint(LocalDate recordDate, String reduction, int points) {
+        Footprint footprint = new Footprint();
+        footprint.setId(FOOTPRINT_IDS.incrementAndGet());
+        footprint.setUserId(userId);
+        footprint.setBehaviorType("BUS");
+        footprint.setBehaviorName("公交出行");
+        footprint.setCoefficient(new BigDecimal("0.0890"));
+        footprint.setFactorVersion(1);
+        footprint.setReductionAmount(new BigDecimal(reduction));
+        footprint.setPointsEarned(points);
+        footprint.setRecordDate(recordDate);
+        return footprint;
+    }
+
+    /**
+     * 直接写入事件行（不唤醒分发线程），返回分发线程读到的形式
+     */
+    private FootprintEvent append(String type, Object payload) throws Exception {
+        FootprintEvent event = new FootprintEvent();
+        event.setEventType(type);
+        event.setUserId(userId);
+        event.setPayload(objectMapper.writeValueAsString(payload));
+        footprintEventMapper.insert(event);
+        event.setAttempts(0);
+        return event;
+    }
+
+    private void assertUserTotals(String reduction, int points) {
+        Map<String, Object> user = jdbcTemplate.queryForMap("SELECT total_reduction, points FROM tb_user WHERE id = ?", userId);
+        assertThat((BigDecimal) user.get("total_reduction")).isEqualByComparingTo(reduction);
+        assertThat(((Number) user.get("points")).intValue()).isEqualTo(points);
+    }
+
+    private int pendingEvents() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_footprint_event WHERE user_id = ? AND status = 0", Integer.class, userId);
+    }
+
+    private int rollupCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_footprint_daily WHERE user_id = ?", Integer.class, userId);
+    }
+
+    private int ledgerCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_points_ledger WHERE user_id = ?", Integer.class, userId);
+    }
+}
@@ -0,0 +1,112 @@
+package com.lowcarbon.service.impl;
+
+import com.lowcarbon.entity.FootprintEvent;
+import com.lowcarbon.mapper.FootprintEventMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * 发件箱的失败处理：整批失败后按顺序逐条重试，出错的事件重试 5 次后标记为失败，不阻塞其后的事件
+ */
+class FootprintEventOutboxTest {
+
+    private FootprintEventHandler handler;
+    private FootprintEventMapper mapper;
+    private FootprintEventOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        handler = mock(FootprintEventHandler.class);
+        mapper = mock(FootprintEventMapper.class);
+        outbox = new FootprintEventOutbox();
+        ReflectionTestUtils.setField(outbox, "footprintEventHandler", handler);
+        ReflectionTestUtils.setField(outbox, "footprintEventMapper", mapper);
+        ReflectionTestUtils.setField(outbox, "retryBackoff", 1L);
+    }
+
+    @Test
+    void batchSucceedsInOneCall() throws InterruptedException {
+        List<FootprintEvent> batch = List.of(event(1L, 0), event(2L, 0));
+
+        outbox.process(batch);
+
+        verify(handler, times(1)).handle(anyList());
+        verify(handler).handle(batch);
+        verifyNoInteractions(mapper);
+    }
+
+    @Test
+    void failedBatchFallsBackToPerEventRetryAndMarksPoisonEventFailed() throws InterruptedException {
+        FootprintEvent first = event(1L, 0);
+        FootprintEvent poison = event(2L, 0);
+        FootprintEvent last = event(3L, 0);
+        List<FootprintEvent> batch = List.of(first, poison, last);
+        doAnswer(invocation -> {
+            List<FootprintEvent> events = invocation.getArgument(0);
+            if (events.contains(poison)) {
+                throw new RuntimeException("未知的碳足迹事件类型");
+            }
+            return null;
+        }).when(handler).handle(anyList());
+
+        outbox.process(batch);
+
+        InOrder order = inOrder(handler, mapper);
+        order.verify(handler).handle(batch);
+        order.verify(handler).handle(List.of(first));
+        for (int attempt = 1; attempt < 5; attempt++) {
+            order.verify(handler).handle(List.of(poison));
+            order.verify(mapper).recordFailure(eq(2L), anyString(), eq(0));
+        }
+        order.verify(handler).handle(List.of(poison));
+        order.verify(mapper).recordFailure(eq(2L), anyString(), eq(2));
+        order.verify(handler).handle(List.of(last));
+        order.verifyNoMoreInteractions();
+        verify(mapper, never()).recordFailure(eq(1L), anyString(), eq(0));
+        verify(mapper, never()).recordFailure(eq(3L), anyString(), eq(0));
+    }
+
+    @Test
+    void retryContinuesFromRecordedAttempts() throws InterruptedException {
+        // 重启后读到的事件已失败 3 次，再失败 2 次即标记为失败
+        FootprintEvent poison = event(7L, 3);
+        doAnswer(invocation -> {
+            throw new RuntimeException("碳足迹事件解析失败");
+        }).when(handler).handle(anyList());
+
+        outbox.process(List.of(poison));
+
+        verify(handler, times(1 + 2)).handle(List.of(poison));
+        verify(mapper, times(1)).recordFailure(eq(7L), anyString(), eq(0));
+        verify(mapper, times(1)).recordFailure(eq(7L), anyString(), eq(2));
+        verify(mapper, times(2)).recordFailure(anyLong(), anyString(), anyInt());
+    }
+
+    private static FootprintEvent event(Long id, int attempts) {
+        FootprintEvent event = new FootprintEvent();
+        event.setId(id);
+        event.setUserId(100L);
+        event.setEventType(FootprintEventOutbox.TYPE_RECORDED);
+        event.setPayload("{}");
+        event.setStatus(0);
+        event.setAttempts(attempts);
+        return event;
+    }
+}
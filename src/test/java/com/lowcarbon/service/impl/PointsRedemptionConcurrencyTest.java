@@ -0,0 +1,189 @@
+package com.lowcarbon.service.impl;
+
+import com.lowcarbon.dto.RedemptionVO;
+import com.lowcarbon.service.PointsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 积分兑换并发：限量商品恰好兑出库存数量、每个用户的流水序号连续且等于积分版本号、
+ * 相同幂等键的并发请求只产生一条兑换记录
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PointsRedemptionConcurrencyTest {
+
+    private static final int INITIAL_POINTS = 1000;
+
+    @Autowired
+    private PointsService pointsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void limitedStockSellsExactlyStock() throws Exception {
+        int stock = 20;
+        int cost = 100;
+        int users = 60;
+        int requestsPerUser = 3;
+        Long itemId = createItem(cost, stock);
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            userIds.add(createUser());
+        }
+
+        // 每个用户同时发起多次（不同幂等键）兑换，同一用户的余额更新会发生版本冲突
+        AtomicInteger successes = new AtomicInteger();
+        Map<Long, AtomicInteger> redeemedByUser = new ConcurrentHashMap<>();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long userId : userIds) {
+                for (int r = 0; r < requestsPerUser; r++) {
+                    String key = "stock-" + userId + "-" + r;
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            RedemptionVO vo = pointsService.redeem(userId, itemId, key);
+                            assertThat(vo.getDuplicate()).isFalse();
+                            successes.incrementAndGet();
+                            redeemedByUser.computeIfAbsent(userId, k -> new AtomicInteger()).incrementAndGet();
+                        } catch (RuntimeException e) {
+                            if (!"商品已兑完".equals(e.getMessage())) {
+                                failures.add(e);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(failures).isEmpty();
+        assertThat(successes.get()).isEqualTo(stock);
+        assertThat(jdbcTemplate.queryForObject("SELECT stock FROM tb_reward_item WHERE id = ?", Integer.class, itemId)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tb_achievement WHERE type = 2 AND item_id = ?", Integer.class, itemId)).isEqualTo(stock);
+        for (Long userId : userIds) {
+            int redeemed = redeemedByUser.getOrDefault(userId, new AtomicInteger()).get();
+            assertLedgerConsistent(userId, INITIAL_POINTS - redeemed * cost, 1 + redeemed);
+        }
+    }
+
+    @Test
+    void duplicateIdempotencyKeyRedeemsOnce() throws Exception {
+        int cost = 50;
+        Long itemId = createItem(cost, 100);
+        Long userId = createUser();
+        String key = "dup-" + System.nanoTime();
+
+        // 同一幂等键的并发重试：只扣减一次，其余返回同一兑换记录或提示处理中
+        int requests = 16;
+        List<RedemptionVO> results = Collections.synchronizedList(new ArrayList<>());
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        results.add(pointsService.redeem(userId, itemId, key));
+                    } catch (RuntimeException e) {
+                        if (!"兑换处理中，请稍后重试".equals(e.getMessage())) {
+                            failures.add(e);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // 之后的重试返回已完成的兑换
+        results.add(pointsService.redeem(userId, itemId, key));
+
+        assertThat(failures).isEmpty();
+        assertThat(results.stream().filter(vo -> !vo.getDuplicate()).count()).isEqualTo(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        results.forEach(vo -> ids.add(vo.getId()));
+        assertThat(ids).hasSize(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tb_achievement WHERE user_id = ? AND idempotency_key = ?", Integer.class, userId, key)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT stock FROM tb_reward_item WHERE id = ?", Integer.class, itemId)).isEqualTo(99);
+        assertLedgerConsistent(userId, INITIAL_POINTS - cost, 2);
+    }
+
+    /**
+     * 流水序号从 1 连续递增，最大序号等于积分版本号，最后一条流水的余额等于当前积分
+     */
+    private void assertLedgerConsistent(Long userId, int expectedPoints, long expectedVersion) {
+        Map<String, Object> user = jdbcTemplate.queryForMap("SELECT points, points_version FROM tb_user WHERE id = ?", userId);
+        assertThat(((Number) user.get("points")).intValue()).isEqualTo(expectedPoints);
+        assertThat(((Number) user.get("points_version")).longValue()).isEqualTo(expectedVersion);
+
+        List<Map<String, Object>> ledger = jdbcTemplate.queryForList(
+                "SELECT seq, change_amount, balance_after FROM tb_points_ledger WHERE user_id = ? ORDER BY seq", userId);
+        assertThat(ledger).hasSize((int) expectedVersion);
+        int balance = 0;
+        for (int i = 0; i < ledger.size(); i++) {
+            Map<String, Object> row = ledger.get(i);
+            assertThat(((Number) row.get("seq")).longValue()).isEqualTo(i + 1);
+            balance += ((Number) row.get("change_amount")).intValue();
+            assertThat(((Number) row.get("balance_after")).intValue()).isEqualTo(balance);
+        }
+        assertThat(balance).isEqualTo(expectedPoints);
+    }
+
+    /**
+     * 新用户带期初积分（与积分流水升级脚本一致：期初流水序号 1，版本号 1）
+     */
+    private Long createUser() {
+        String username = "redeem_" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO tb_user (username, password, nickname, points, points_version) VALUES (?, 'x', ?, ?, 1)",
+                username, username, INITIAL_POINTS);
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM tb_user WHERE username = ?", Long.class, username);
+        jdbcTemplate.update("INSERT INTO tb_points_ledger (user_id, seq, change_amount, balance_after, biz_type) VALUES (?, 1, ?, ?, 'OPENING')",
+                userId, INITIAL_POINTS, INITIAL_POINTS);
+        return userId;
+    }
+
+    private Long createItem(int cost, int stock) {
+        String name = "item_" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO tb_reward_item (name, points_cost, stock) VALUES (?, ?, ?)", name, cost, stock);
+        return jdbcTemplate.queryForObject("SELECT id FROM tb_reward_item WHERE name = ?", Long.class, name);
+    }
+}
@@ -0,0 +1,186 @@
+-- ========================================
+-- 集成测试表结构（H2 MySQL 兼容模式）
+-- 与 database.sql 及各 database_update_*.sql 执行后的结构一致
+-- ========================================
+
+CREATE TABLE tb_user (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  username VARCHAR(50) NOT NULL,
+  password VARCHAR(100) NOT NULL,
+  nickname VARCHAR(50) DEFAULT NULL,
+  avatar VARCHAR(255) DEFAULT NULL,
+  bio VARCHAR(255) DEFAULT NULL,
+  points INT DEFAULT 0,
+  points_version BIGINT NOT NULL DEFAULT 0,
+  total_reduction DECIMAL(10, 2) DEFAULT 0.00,
+  current_streak INT NOT NULL DEFAULT 0,
+  last_checkin_date DATE DEFAULT NULL,
+  role VARCHAR(20) DEFAULT 'USER',
+  status TINYINT DEFAULT 1,
+  create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+  update_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  UNIQUE KEY uk_username (username)
+);
+
+CREATE TABLE tb_article (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  title VARCHAR(200) NOT NULL,
+  cover_img VARCHAR(255) DEFAULT NULL,
+  content LONGTEXT,
+  excerpt VARCHAR(200) NOT NULL DEFAULT '',
+  category VARCHAR(50) DEFAULT NULL,
+  views INT DEFAULT 0,
+  likes_count INT NOT NULL DEFAULT 0,
+  comments_count INT NOT NULL DEFAULT 0,
+  favorites_count INT NOT NULL DEFAULT 0,
+  author_id BIGINT DEFAULT NULL,
+  is_top TINYINT DEFAULT 0,
+  create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+  update_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  KEY idx_top_time_id (is_top, create_time, id)
+);
+
+CREATE TABLE tb_article_like (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  article_id BIGINT NOT NULL,
+  user_id BIGINT NOT NULL,
+  create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  UNIQUE KEY uk_like_article_user (article_id, user_id)
+);
+
+CREATE TABLE tb_article_comment (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  article_id BIGINT NOT NULL,
+  user_id BIGINT NOT NULL,
+  content TEXT NOT NULL,
+  create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  KEY idx_comment_article_id (article_id)
+);
+
+CREATE TABLE tb_article_favorite (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  article_id BIGINT NOT NULL,
+  user_id BIGINT NOT NULL,
+  create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  UNIQUE KEY uk_favorite_article_user (article_id, user_id)
+);
+
+CREATE TABLE tb_footprint (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  user_id BIGINT NOT NULL,
+  behavior_type VARCHAR(50) NOT NULL,
+  behavior_name VARCHAR(50) DEFAULT NULL,
+  coefficient DECIMAL(10, 4) NOT NULL,
+  factor_version INT NOT NULL DEFAULT 1,
+  data_value DECIMAL(10, 2) DEFAULT 0.00,
+  reduction_amount DECIMAL(10, 2) DEFAULT 0.00,
+  points_earned INT DEFAULT 0,
+  record_date DATE DEFAULT NULL,
+  remark VARCHAR(255) DEFAULT NULL,
+  create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  KEY idx_user_date_time_id (user_id, record_date, create_time, id),
+  KEY idx_user_date_stats (user_id, record_date, reduction_amount, points_earned)
+);
+
+CREATE TABLE tb_footprint_daily (
+  user_id BIGINT NOT NULL,
+  record_date DATE NOT NULL,
+  behavior_type VARCHAR(50) NOT NULL,
+  behavior_name VARCHAR(50) DEFAULT NULL,
+  record_count INT NOT NULL DEFAULT 0,
+  reduction_amount DECIMAL(12, 2) NOT NULL DEFAULT 0.00,
+  points_earned INT NOT NULL DEFAULT 0,
+  PRIMARY KEY (user_id, record_date, behavior_type)
+);
+
+CREATE TABLE tb_footprint_event (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  event_type VARCHAR(30) NOT NULL,
+  user_id BIGINT NOT NULL,
+  payload MEDIUMTEXT NOT NULL,
+  status TINYINT NOT NULL DEFAULT 0,
+  attempts INT NOT NULL DEFAULT 0,
+  last_error VARCHAR(500) DEFAULT NULL,
+  create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  KEY idx_status_id (status, id),
+  KEY idx_event_user_id (user_id)
+);
+
+CREATE TABLE tb_behavior_factor (
+  version INT NOT NULL,
+  behavior_type VARCHAR(50) NOT NULL,
+  behavior_name VARCHAR(50) NOT NULL,
+  unit VARCHAR(20) NOT NULL,
+  description VARCHAR(255) DEFAULT NULL,
+  coefficient DECIMAL(10, 4) NOT NULL,
+  sort_order INT NOT NULL DEFAULT 0,
+  visible TINYINT NOT NULL DEFAULT 1,
+  create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (version, behavior_type)
+);
+
+CREATE TABLE tb_achievement (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  user_id BIGINT NOT NULL,
+  type TINYINT NOT NULL,
+  rule_code VARCHAR(50) DEFAULT NULL,
+  item_id BIGINT DEFAULT NULL,
+  idempotency_key VARCHAR(64) DEFAULT NULL,
+  title VARCHAR(50) NOT NULL,
+  description VARCHAR(255) DEFAULT NULL,
+  points_change INT DEFAULT 0,
+  icon_url VARCHAR(255) DEFAULT NULL,
+  create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  UNIQUE KEY uk_user_rule (user_id, rule_code),
+  UNIQUE KEY uk_user_idempotency (user_id, idempotency_key)
+);
+
+CREATE TABLE tb_points_ledger (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  user_id BIGINT NOT NULL,
+  seq BIGINT NOT NULL,
+  change_amount INT NOT NULL,
+  balance_after INT NOT NULL,
+  biz_type VARCHAR(20) NOT NULL,
+  biz_id VARCHAR(64) DEFAULT NULL,
+  create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  UNIQUE KEY uk_user_seq (user_id, seq)
+);
+
+CREATE TABLE tb_reward_item (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  name VARCHAR(100) NOT NULL,
+  description VARCHAR(500) DEFAULT NULL,
+  image_url VARCHAR(500) DEFAULT NULL,
+  points_cost INT NOT NULL,
+  stock INT NOT NULL DEFAULT 0,
+  status TINYINT DEFAULT 1,
+  create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+  update_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id)
+);
+
+INSERT INTO tb_behavior_factor
+  (version, behavior_type, behavior_name, unit, description, coefficient, sort_order, visible)
+VALUES
+  (1, 'BUS', '公交出行', 'km', '搭乘公交车出行', 0.089, 1, 1),
+  (1, 'SUBWAY', '地铁出行', 'km', '搭乘地铁出行', 0.055, 2, 1),
+  (1, 'BIKE', '骑行', 'km', '骑自行车出行', 0, 3, 1),
+  (1, 'WALK', '步行', 'km', '步行出行', 0, 4, 1),
+  (1, 'CAR', '私家车', 'km', '驾驶私家车出行', 0.271, 5, 0),
+  (1, 'ELECTRIC_CAR', '电动车出行', 'km', '驾驶电动车出行', 0.15, 6, 1),
+  (1, 'SAVE_ELEC', '节约用电', '度', '节约用电量', 0.785, 7, 1),
+  (1, 'SAVE_WATER', '节约用水', '吨', '节约用水量', 0.194, 8, 1),
+  (1, 'VEGETARIAN', '素食', '次', '选择素食餐', 0.5, 9, 1),
+  (1, 'REDUCE_WASTE', '减少浪费', '次', '减少食物浪费', 0.3, 10, 1),
+  (1, 'RECYCLE', '垃圾分类', '次', '垃圾分类回收', 0.2, 11, 1),
+  (1, 'REUSE_BAG', '环保袋', '次', '使用环保购物袋', 0.1, 12, 1);